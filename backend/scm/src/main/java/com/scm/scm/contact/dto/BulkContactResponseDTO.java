@@ -0,0 +1,18 @@
+package com.scm.scm.contact.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkContactResponseDTO {
+    private int created;
+    private int failed;
+    private List<BulkContactResultDTO> results;
+}
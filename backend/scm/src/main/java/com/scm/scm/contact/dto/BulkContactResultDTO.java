@@ -0,0 +1,18 @@
+package com.scm.scm.contact.dto;
+
+import com.scm.scm.contact.vao.BulkContactStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkContactResultDTO {
+    private int index;
+    private String id;
+    private BulkContactStatus status;
+    private String message;
+}
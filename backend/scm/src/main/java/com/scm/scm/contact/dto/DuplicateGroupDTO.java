@@ -0,0 +1,19 @@
+package com.scm.scm.contact.dto;
+
+import com.scm.scm.contact.vao.DuplicateMatchKey;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DuplicateGroupDTO {
+    private String key;
+    private DuplicateMatchKey matchKey;
+    private List<ContactDTO> contacts;
+}
@@ -1,31 +1,46 @@
 package com.scm.scm.contact.rest;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.firebase.auth.FirebaseToken;
+import com.scm.scm.contact.dto.BulkContactResponseDTO;
 import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.dto.DuplicateGroupDTO;
 import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.contact.vao.DuplicateMatchKey;
+import com.scm.scm.imports.services.ImportJobServices;
+import com.scm.scm.imports.vao.ImportFormat;
 import com.scm.scm.predefinedSearch.dto.PredefinedSearchDTO;
 import com.scm.scm.predefinedSearch.services.PredefinedSearchServices;
 import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import com.scm.scm.predefinedSearch.vao.SortOrientation;
 import com.scm.scm.support.ImportContactExcel;
 import com.scm.scm.support.ImportContactJson;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
 import com.scm.scm.support.export.ExportContactExcel;
+import com.scm.scm.support.export.ExportContactJson;
 import com.scm.scm.support.export.ExportContactRequest;
+import com.scm.scm.support.pagination.CursorPage;
 import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.support.security.UserVerifyService;
 import org.apache.commons.text.StringEscapeUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -36,21 +51,30 @@ public class ContactController {
 
     private final ContactServices contactServices;
     private final ExportContactExcel exportContactExcel;
+    private final ExportContactJson exportContactJson;
     private final ImportContactExcel importContactExcel;
     private final ImportContactJson importContactJson;
+    private final ImportJobServices importJobServices;
     private final UserAccessService userAccessService;
     private final PredefinedSearchServices predefinedSearchServices;
     private final UserVerifyService userVerifyService;
+    private final ObjectMapper objectMapper;
+    private final int bulkMaxSize;
 
     @Autowired
-    public ContactController(ContactServices contactServices, ExportContactExcel exportContactExcel, ImportContactExcel importContactExcel, ImportContactJson importContactJson, UserAccessService userAccessService, PredefinedSearchServices predefinedSearchServices, UserVerifyService userVerifyService) {
+    public ContactController(ContactServices contactServices, ExportContactExcel exportContactExcel, ExportContactJson exportContactJson, ImportContactExcel importContactExcel, ImportContactJson importContactJson, ImportJobServices importJobServices, UserAccessService userAccessService, PredefinedSearchServices predefinedSearchServices, UserVerifyService userVerifyService,
+                             ObjectMapper objectMapper, @Value("${scm.contacts.bulk.max-size:1000}") int bulkMaxSize) {
         this.contactServices = contactServices;
         this.exportContactExcel = exportContactExcel;
+        this.exportContactJson = exportContactJson;
         this.importContactExcel = importContactExcel;
         this.importContactJson = importContactJson;
+        this.importJobServices = importJobServices;
         this.userAccessService = userAccessService;
         this.predefinedSearchServices = predefinedSearchServices;
         this.userVerifyService = userVerifyService;
+        this.objectMapper = objectMapper;
+        this.bulkMaxSize = bulkMaxSize;
     }
 
     private static final Logger log = Logger.getLogger(ContactServices.class.toString());
@@ -91,6 +115,28 @@ public class ContactController {
         return ResponseEntity.ok(contacts);
     }
 
+    @GetMapping(value = "/{tenant_unique_name}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<ContactDTO>> getContactsPage(@PathVariable(name = "tenant_unique_name") String tenantUniqueName, @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "limit", required = false) Integer limit, @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            log.log(Level.WARNING, "Access denied for user: " + decodedToken.getEmail() + " to tenant: " + tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(contactServices.findContactsPage(tenantUniqueName, false, cursor, limit));
+    }
+
+    @GetMapping(value = "/{tenant_unique_name}/deleted/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<ContactDTO>> getDeletedContactsPage(@PathVariable(name = "tenant_unique_name") String tenantUniqueName, @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "limit", required = false) Integer limit, @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            log.log(Level.WARNING, "Access denied for user: " + decodedToken.getEmail() + " to tenant: " + tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(contactServices.findContactsPage(tenantUniqueName, true, cursor, limit));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> addContact(@RequestHeader("userToken") String userToken,@RequestHeader("duplicate") String duplicate, @RequestBody ContactDTO contactDTO) {
         FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
@@ -104,6 +150,35 @@ public class ContactController {
         return ResponseEntity.ok(contactServices.createContact(contactDTO, sanitizedUserToken, duplicateContact));
     }
 
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkContactResponseDTO> bulkCreateContacts(@RequestParam("tenantUniqueName") String tenantUniqueName, @RequestHeader("userToken") String userToken, InputStream body) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+        String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
+
+        if (!userAccessService.hasAccessToContact(sanitizedUserToken, tenantUniqueName)) {
+            log.log(Level.WARNING, "Access denied for user: " + decodedToken.getEmail() + " to tenant: " + tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(contactServices.bulkCreateContacts(tenantUniqueName, readBulkContacts(body), sanitizedUserToken));
+    }
+
+    // Accepts a JSON array or newline-delimited JSON objects.
+    private List<ContactDTO> readBulkContacts(InputStream body) {
+        List<ContactDTO> contacts = new ArrayList<>();
+        try (MappingIterator<ContactDTO> rows = objectMapper.readerFor(ContactDTO.class).readValues(body)) {
+            while (rows.hasNextValue()) {
+                if (contacts.size() >= bulkMaxSize) {
+                    throw new CustomHttpException("Bulk request exceeds " + bulkMaxSize + " contacts", 413, ExceptionCause.USER_ERROR);
+                }
+                contacts.add(rows.nextValue());
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Invalid bulk request body: " + e.getMessage());
+            throw new CustomHttpException("Invalid bulk request body", 400, ExceptionCause.USER_ERROR);
+        }
+        return contacts;
+    }
+
     @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<ContactDTO> updateContact(@RequestHeader("userToken") String userToken, @RequestBody ContactDTO contactDTO) {
         FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
@@ -206,8 +281,59 @@ public class ContactController {
         }
     }
 
+    @PostMapping(value = "/export/stream", consumes = MediaType.APPLICATION_JSON_VALUE , produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportContactsStream(@RequestBody ExportContactRequest request, @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+        String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
+
+        if (request == null || sanitizedUserToken == null || request.getTenantUniqueName() == null || request.getTenantId() == null) {
+            return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+        }
+
+        String tenantUniqueName = StringEscapeUtils.escapeHtml4(request.getTenantUniqueName());
+        String tenantId = StringEscapeUtils.escapeHtml4(request.getTenantId());
+        List<String> contactIds = request.getContactIds().stream()
+                .map(StringEscapeUtils::escapeHtml4)
+                .toList();
+
+        if(!userAccessService.hasAccessToTenant(sanitizedUserToken, tenantId) || !userAccessService.hasAccessToContact(sanitizedUserToken, tenantUniqueName)) {
+            return new ResponseEntity<>(null, HttpStatus.FORBIDDEN);
+        }
+
+        log.log(Level.INFO, "Streaming contact export for tenant: {0}", tenantUniqueName);
+        return exportContactExcel.exportContactsStream(tenantUniqueName, contactIds);
+    }
+
+    @GetMapping(value = "/export/stream/{tenant_unique_name}", produces = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportContactsJsonStream(@PathVariable(name = "tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken,
+                                                                          @RequestParam(name = "format", defaultValue = "ndjson") String format,
+                                                                          @RequestParam(name = "fields", required = false) List<String> fields,
+                                                                          @RequestParam(name = "searchQuery", required = false) String searchQuery,
+                                                                          @RequestParam(name = "filter", required = false) List<String> filter,
+                                                                          @RequestParam(name = "sortOrientation", required = false) SortOrientation sortOrientation) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+        String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
+
+        if (!userAccessService.hasAccessToContact(sanitizedUserToken, tenantUniqueName)) {
+            log.log(Level.WARNING, "Access denied for user: " + decodedToken.getEmail() + " to tenant: " + tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        if (!"ndjson".equals(format) && !"json".equals(format)) {
+            throw new CustomHttpException("Export format must be ndjson or json", 400, ExceptionCause.USER_ERROR);
+        }
+        PredefinedSearch search = PredefinedSearch.builder()
+                .onTenant(tenantUniqueName)
+                .searchQuery(searchQuery)
+                .filter(filter)
+                .sortOrientation(sortOrientation)
+                .build();
+        log.log(Level.INFO, "Streaming {0} contact export for tenant: {1}", new Object[]{format, tenantUniqueName});
+        return exportContactJson.exportContactsStream(search, fields, "ndjson".equals(format));
+    }
+
     @PostMapping(value = "/import-excel", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<String> importContacts(@RequestParam("file") MultipartFile file, @RequestParam("tenantUniqueName") String tenantUniqueName, @RequestHeader("userToken") String userToken) {
+    public ResponseEntity<?> importContacts(@RequestParam("file") MultipartFile file, @RequestParam("tenantUniqueName") String tenantUniqueName, @RequestHeader("userToken") String userToken,
+                                            @RequestParam(name = "async", defaultValue = "false") boolean async) {
         FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
         String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
 
@@ -216,6 +342,10 @@ public class ContactController {
             return new ResponseEntity<>("Invalid request", HttpStatus.BAD_REQUEST);
         }
 
+        if (async) {
+            return ResponseEntity.accepted().body(importJobServices.submit(file, ImportFormat.EXCEL, sanitizedUserToken, tenantUniqueName));
+        }
+
         try {
             importContactExcel.importContactsFromExcel(file, sanitizedUserToken, tenantUniqueName);
             log.log(Level.INFO, "Contacts imported successfully to tenant: " + tenantUniqueName);
@@ -229,7 +359,8 @@ public class ContactController {
     @PostMapping("/import-json")
     public ResponseEntity<?> importContactsFromJson(@RequestParam("file") MultipartFile file,
                                                     @RequestHeader("userToken") String userToken,
-                                                    @RequestParam("tenantUniqueName") String tenantUniqueName) {
+                                                    @RequestParam("tenantUniqueName") String tenantUniqueName,
+                                                    @RequestParam(name = "async", defaultValue = "false") boolean async) {
         try {
             FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
             String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
@@ -238,7 +369,10 @@ public class ContactController {
                 log.log(Level.WARNING, "Invalid request");
                 return new ResponseEntity<>("Invalid request", HttpStatus.BAD_REQUEST);
             }
-            
+            if (async) {
+                return ResponseEntity.accepted().body(importJobServices.submit(file, ImportFormat.JSON, sanitizedUserToken, tenantUniqueName));
+            }
+
             importContactJson.importContactsFromJson(file, sanitizedUserToken, tenantUniqueName);
             log.log(Level.INFO, "Contacts imported successfully from JSON to tenant: " + tenantUniqueName);
             return ResponseEntity.ok("Contacts imported successfully from JSON");
@@ -250,7 +384,8 @@ public class ContactController {
     @PostMapping("/import-json/registration")
     public ResponseEntity<?> importContactsFromJsonRegistration(@RequestParam("file") MultipartFile file,
                                                     @RequestHeader("userToken") String userToken,
-                                                    @RequestParam("tenantUniqueName") String tenantUniqueName) {
+                                                    @RequestParam("tenantUniqueName") String tenantUniqueName,
+                                                    @RequestParam(name = "async", defaultValue = "false") boolean async) {
         try {
             FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
             String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
@@ -259,6 +394,9 @@ public class ContactController {
                 log.log(Level.WARNING, "Invalid request");
                 return new ResponseEntity<>("Invalid request", HttpStatus.BAD_REQUEST);
             }
+            if (async) {
+                return ResponseEntity.accepted().body(importJobServices.submit(file, ImportFormat.JSON_REGISTRATION, sanitizedUserToken, tenantUniqueName));
+            }
             importContactJson.importRegistrationContactsFromJson(file, sanitizedUserToken, tenantUniqueName);
             log.log(Level.INFO, "Registration contacts imported successfully from JSON to tenant: " + tenantUniqueName);
             return ResponseEntity.ok("Contacts imported successfully from JSON");
@@ -299,6 +437,21 @@ public class ContactController {
         return ResponseEntity.ok(duplicateContacts);
     }
 
+    @GetMapping(value = "/duplicates/{tenant_unique_name}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<DuplicateGroupDTO>> getDuplicateGroupsPage(@PathVariable(name = "tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken,
+                                                                                @RequestParam(name = "keys", required = false) Set<DuplicateMatchKey> keys,
+                                                                                @RequestParam(name = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                                                @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "limit", required = false) Integer limit) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+        String sanitizedUserToken = StringEscapeUtils.escapeHtml4(decodedToken.getEmail());
+
+        if (!userAccessService.hasAccessToContact(sanitizedUserToken, tenantUniqueName)) {
+            log.log(Level.WARNING, "Access denied for user: " + decodedToken.getEmail() + " to tenant: " + tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(contactServices.findDuplicateGroupsPage(tenantUniqueName, keys, fuzzy, cursor, limit));
+    }
+
     @PostMapping(value = "/merge", consumes = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<String> mergeContacts(
             @RequestHeader("userToken") String userToken,
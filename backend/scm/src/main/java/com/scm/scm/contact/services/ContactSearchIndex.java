@@ -0,0 +1,320 @@
+package com.scm.scm.contact.services;
+
+import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import com.scm.scm.predefinedSearch.vao.SortOrientation;
+import com.scm.scm.support.mongoTemplate.CollectionType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+@Service
+public class ContactSearchIndex {
+
+    private static final Logger log = Logger.getLogger(ContactSearchIndex.class.toString());
+
+    private static final int GRAM_SIZE = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final TenantIndexes<TenantIndex> tenantIndexes = new TenantIndexes<>(this::buildTenantIndex);
+
+    @Autowired
+    public ContactSearchIndex(MongoTemplate mongoTemplate, @Value("${scm.search.index.enabled:false}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> search(PredefinedSearch search) {
+        return search(search, ContactSearchQueryBuilder.MAX_RESULTS);
+    }
+
+    // Past the limit, only the first matches in title order are returned.
+    public List<String> search(PredefinedSearch search, int limit) {
+        TenantIndex index = tenantIndexes.get(search.getOnTenant());
+        return index.search(search.getSearchQuery(), search.getFilter(), search.getSortOrientation(), limit);
+    }
+
+    public void index(String tenantUniqueName, Contact contact) {
+        if (!enabled) {
+            return;
+        }
+        tenantIndexes.update(tenantUniqueName, index -> index.put(contact.getId(), contact.getTitle(), contact.getAttributesToString(), contact.getTags()));
+    }
+
+    public void remove(String tenantUniqueName, String contactId) {
+        if (!enabled) {
+            return;
+        }
+        tenantIndexes.update(tenantUniqueName, index -> index.remove(contactId));
+    }
+
+    public void invalidate(String tenantUniqueName) {
+        if (tenantIndexes.invalidate(tenantUniqueName)) {
+            log.log(Level.INFO, "Search index invalidated for tenant: {0}", tenantUniqueName);
+        }
+    }
+
+    private TenantIndex buildTenantIndex(String tenantUniqueName) {
+        Query query = new Query();
+        query.fields().include("_id").include("title").include("attributesToString").include("tags");
+
+        TenantIndex index = new TenantIndex();
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+            documents.forEach(document -> index.put(document.get("_id").toString(), document.getString("title"), document.getString("attributesToString"), document.getList("tags", String.class)));
+        }
+        log.log(Level.INFO, "Search index built with {0} contacts for tenant: {1}", new Object[]{index.size(), tenantUniqueName});
+        return index;
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    static final class TenantIndex {
+
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final List<String> ids = new ArrayList<>();
+        private final List<String> titles = new ArrayList<>();
+        private final List<String> texts = new ArrayList<>();
+        private final List<List<String>> tagsByOrdinal = new ArrayList<>();
+        private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+        private final BitSet live = new BitSet();
+        private final Map<String, Postings> gramPostings = new HashMap<>();
+        private final Map<String, Postings> tagPostings = new HashMap<>();
+
+        synchronized int size() {
+            return ordinals.size();
+        }
+
+        synchronized void put(String id, String title, String attributesToString, List<String> tags) {
+            remove(id);
+            String text = attributesToString == null ? "" : attributesToString;
+            List<String> contactTags = tags == null ? List.of() : List.copyOf(tags);
+
+            int ordinal;
+            if (freeOrdinals.isEmpty()) {
+                ordinal = ids.size();
+                ids.add(id);
+                titles.add(title);
+                texts.add(text);
+                tagsByOrdinal.add(contactTags);
+            } else {
+                ordinal = freeOrdinals.pop();
+                ids.set(ordinal, id);
+                titles.set(ordinal, title);
+                texts.set(ordinal, text);
+                tagsByOrdinal.set(ordinal, contactTags);
+            }
+            ordinals.put(id, ordinal);
+            live.set(ordinal);
+
+            for (String gram : grams(text)) {
+                gramPostings.computeIfAbsent(gram, key -> new Postings()).add(ordinal);
+            }
+            for (String tag : contactTags) {
+                tagPostings.computeIfAbsent(tag, key -> new Postings()).add(ordinal);
+            }
+        }
+
+        synchronized void remove(String id) {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal == null) {
+                return;
+            }
+            for (String gram : grams(texts.get(ordinal))) {
+                clearPosting(gramPostings, gram, ordinal);
+            }
+            for (String tag : tagsByOrdinal.get(ordinal)) {
+                clearPosting(tagPostings, tag, ordinal);
+            }
+            live.clear(ordinal);
+            ids.set(ordinal, null);
+            titles.set(ordinal, null);
+            texts.set(ordinal, null);
+            tagsByOrdinal.set(ordinal, List.of());
+            freeOrdinals.push(ordinal);
+        }
+
+        synchronized List<String> search(String searchQuery, List<String> filter, SortOrientation sortOrientation, int limit) {
+            // null stands for every live contact
+            int[] result = null;
+            if (searchQuery != null && !searchQuery.isEmpty()) {
+                boolean andQuery = ContactSearchQueryBuilder.isAndQuery(searchQuery);
+                int[] termsResult = null;
+                for (String term : ContactSearchQueryBuilder.splitTerms(searchQuery)) {
+                    int[] termMatches = matchTerm(term);
+                    if (termsResult == null) {
+                        termsResult = termMatches;
+                    } else {
+                        termsResult = andQuery ? intersect(termsResult, termsResult.length, termMatches, termMatches.length) : union(termsResult, termMatches);
+                    }
+                }
+                result = termsResult != null || andQuery ? termsResult : new int[0];
+            }
+            if (filter != null) {
+                for (String tag : filter) {
+                    Postings posting = tagPostings.get(tag);
+                    if (posting == null) {
+                        result = new int[0];
+                    } else {
+                        result = result == null ? posting.toArray() : posting.retain(result);
+                    }
+                }
+            }
+            if (result == null) {
+                result = live.stream().toArray();
+            }
+            if (limit > 0 && result.length > limit) {
+                Comparator<String> titleOrder = Comparator.nullsFirst(Comparator.<String>naturalOrder());
+                Comparator<Integer> order = Comparator.comparing(titles::get, sortOrientation == SortOrientation.DESC ? titleOrder.reversed() : titleOrder);
+                result = Arrays.stream(result).boxed().sorted(order).limit(limit).mapToInt(Integer::intValue).toArray();
+            }
+
+            List<String> matches = new ArrayList<>(result.length);
+            for (int ordinal : result) {
+                matches.add(ids.get(ordinal));
+            }
+            return matches;
+        }
+
+        private int[] matchTerm(String term) {
+            List<Postings> postings = new ArrayList<>();
+            for (String gram : grams(term)) {
+                Postings posting = gramPostings.get(gram);
+                if (posting == null) {
+                    return new int[0];
+                }
+                postings.add(posting);
+            }
+            postings.sort(Comparator.comparingInt(Postings::size));
+            int[] candidates = null;
+            for (Postings posting : postings) {
+                candidates = candidates == null ? posting.toArray() : posting.retain(candidates);
+            }
+            if (candidates == null) {
+                candidates = live.stream().toArray();
+            }
+            int count = 0;
+            for (int ordinal : candidates) {
+                if (texts.get(ordinal).contains(term)) {
+                    candidates[count++] = ordinal;
+                }
+            }
+            return Arrays.copyOf(candidates, count);
+        }
+
+        private static void clearPosting(Map<String, Postings> postings, String key, int ordinal) {
+            Postings posting = postings.get(key);
+            if (posting == null) {
+                return;
+            }
+            posting.remove(ordinal);
+            if (posting.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int aLength, int[] b, int bLength) {
+        int[] result = new int[Math.min(aLength, bLength)];
+        int count = 0;
+        for (int i = 0, j = 0; i < aLength && j < bLength; ) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                result[count++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Sorted contact ordinals of one gram or tag. Unlike a BitSet, the size follows the number of
+    // contacts in the posting rather than the highest ordinal, so sparse grams stay small.
+    private static final class Postings {
+
+        private int[] ordinals = new int[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void add(int ordinal) {
+            int position = size == 0 || ordinals[size - 1] < ordinal ? size : Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                return;
+            }
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+            }
+            System.arraycopy(ordinals, position, ordinals, position + 1, size - position);
+            ordinals[position] = ordinal;
+            size++;
+        }
+
+        void remove(int ordinal) {
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ordinals, position + 1, ordinals, position, size - position - 1);
+            size--;
+            if (ordinals.length > 4 && size < ordinals.length / 4) {
+                ordinals = Arrays.copyOf(ordinals, ordinals.length / 2);
+            }
+        }
+
+        int[] retain(int[] candidates) {
+            return intersect(candidates, candidates.length, ordinals, size);
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(ordinals, size);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.scm.scm.contact.services;
+
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import com.scm.scm.predefinedSearch.vao.SortOrientation;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public final class ContactSearchQueryBuilder {
+
+    private static final String AND_SEPARATOR = "&";
+    private static final String OR_SEPARATOR = "\\|";
+    public static final int MAX_RESULTS = 10_000;
+
+    private ContactSearchQueryBuilder() {
+    }
+
+    public static Query build(PredefinedSearch search) {
+        return build(search, MAX_RESULTS);
+    }
+
+    // A limit of zero or less leaves the query unbounded.
+    public static Query build(PredefinedSearch search, int limit) {
+        Query query = new Query();
+        Criteria searchCriteria = buildSearchCriteria(search.getSearchQuery());
+        if (searchCriteria != null) {
+            query.addCriteria(searchCriteria);
+        }
+        if (search.getFilter() != null && !search.getFilter().isEmpty()) {
+            query.addCriteria(Criteria.where("tags").all(search.getFilter()));
+        }
+        query.with(buildSort(search.getSortOrientation()));
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return query;
+    }
+
+    // attributesToString is stored lowercased, so terms are lowercased once here and matched as-is.
+    public static List<String> splitTerms(String searchQuery) {
+        String[] terms = searchQuery.contains(AND_SEPARATOR) ? searchQuery.split(AND_SEPARATOR) : searchQuery.split(OR_SEPARATOR);
+        return Arrays.stream(terms).map(String::toLowerCase).toList();
+    }
+
+    public static boolean isAndQuery(String searchQuery) {
+        return searchQuery.contains(AND_SEPARATOR);
+    }
+
+    public static Sort buildSort(SortOrientation sortOrientation) {
+        return sortOrientation == SortOrientation.DESC ? Sort.by(Sort.Direction.DESC, "title") : Sort.by(Sort.Direction.ASC, "title");
+    }
+
+    private static Criteria buildSearchCriteria(String searchQuery) {
+        if (searchQuery == null || searchQuery.isEmpty()) {
+            return null;
+        }
+        Criteria[] termCriteria = splitTerms(searchQuery).stream()
+                .map(term -> Criteria.where("attributesToString").regex(Pattern.quote(term)))
+                .toArray(Criteria[]::new);
+        if (termCriteria.length == 1) {
+            return termCriteria[0];
+        }
+        return isAndQuery(searchQuery) ? new Criteria().andOperator(termCriteria) : new Criteria().orOperator(termCriteria);
+    }
+}
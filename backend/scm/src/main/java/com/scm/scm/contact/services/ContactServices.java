@@ -1,7 +1,13 @@
 package com.scm.scm.contact.services;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.scm.scm.contact.dto.BulkContactResponseDTO;
+import com.scm.scm.contact.dto.BulkContactResultDTO;
 import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.dto.DuplicateGroupDTO;
+import com.scm.scm.contact.vao.BulkContactStatus;
 import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.contact.vao.DuplicateMatchKey;
 import com.scm.scm.events.services.EventsServices;
 import com.scm.scm.events.vao.Event;
 import com.scm.scm.events.vao.EventState;
@@ -12,18 +18,32 @@ import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
 import com.scm.scm.support.mongoTemplate.CollectionType;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.pagination.CursorPage;
+import com.scm.scm.support.pagination.PageCursor;
 import com.scm.scm.tenant.services.TenantServices;
 import lombok.AllArgsConstructor;
 import org.apache.commons.text.StringEscapeUtils;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -36,18 +56,34 @@ public class ContactServices {
     private EventsServices eventsServices;
     private ContactServices contactServices;
     private EventsCheck eventsCheck;
+    private ContactSearchIndex contactSearchIndex;
+    private DuplicateDetector duplicateDetector;
+    private Integer importBatchSize;
+    private TransactionTemplate transactionTemplate;
     private static final Logger log = Logger.getLogger(ContactServices.class.toString());
 
     private static final String FOR_TENANT = " for tenant: ";
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+    private static final Set<String> EXPORTABLE_FIELDS = Set.of("id", "title", "user", "tenantUniqueName", "comments", "createdAt", "tags", "props", "attributesToString");
 
     @Autowired
-    public ContactServices(MongoTemplate mongoTemplate, MongoTemplateService mongoTemplateService, EventsServices eventsServices, TenantServices tenantServices, EventsCheck eventsCheck) {
+    public ContactServices(MongoTemplate mongoTemplate, MongoTemplateService mongoTemplateService, EventsServices eventsServices, TenantServices tenantServices, EventsCheck eventsCheck, ContactSearchIndex contactSearchIndex, DuplicateDetector duplicateDetector, @Value("${scm.import.batch-size:1000}") Integer importBatchSize) {
         this.eventsServices = eventsServices;
         this.eventsCheck = eventsCheck;
         this.tenantServices = tenantServices;
         this.mongoTemplate = mongoTemplate;
         this.mongoTemplateService = mongoTemplateService;
+        this.contactSearchIndex = contactSearchIndex;
+        this.duplicateDetector = duplicateDetector;
+        this.importBatchSize = importBatchSize;
     }
+
+    @Autowired(required = false)
+    public void setTransactionManager(MongoTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     private String decodeHtmlEntities(String input) {
         return StringEscapeUtils.unescapeHtml4(input);
     }
@@ -59,7 +95,7 @@ public class ContactServices {
                 .user(decodeHtmlEntities(contact.getUser()))
                 .tenantUniqueName(decodeHtmlEntities(contact.getTenantUniqueName()))
                 .comments(decodeHtmlEntities(contact.getComments()))
-                .createdAt(decodeHtmlEntities(contact.getCreatedAt().toString()))
+                .createdAt(contact.getCreatedAt() == null ? null : decodeHtmlEntities(contact.getCreatedAt().toString()))
                 .tags(contact.getTags().stream().map(this::decodeHtmlEntities).collect(Collectors.toList()))
                 .props(contact.getProps().entrySet().stream().collect(Collectors.toMap(
                         entry -> decodeHtmlEntities(entry.getKey()),
@@ -125,18 +161,103 @@ public class ContactServices {
         return contacts.stream().map(this::convertToDTO).toList();
     }
 
+    public Stream<ContactDTO> streamContacts(String tenantUniqueName, List<String> contactIds) {
+        if (tenantUniqueName.isEmpty()) {
+            log.log(Level.WARNING, "TenantUniqueName is empty", tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.TENANT_NAME_EMPTY.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
+        }
+        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+            log.log(Level.WARNING, "Tenant collection " + tenantUniqueName + CollectionType.MAIN.getCollectionType() + " doesn't exists.");
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+        Query query = new Query();
+        if (contactIds != null && !contactIds.isEmpty()) {
+            query.addCriteria(Criteria.where("_id").in(contactIds));
+        }
+        return mongoTemplate.stream(query, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType())
+                .map(this::convertToDTO);
+    }
+
+    public Stream<Document> streamContactDocuments(PredefinedSearch search, List<String> fields) {
+        String tenantUniqueName = search.getOnTenant();
+        if (tenantUniqueName == null || tenantUniqueName.isEmpty()) {
+            log.log(Level.WARNING, "TenantUniqueName is empty", tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.TENANT_NAME_EMPTY.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
+        }
+        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+            log.log(Level.WARNING, "Tenant collection " + tenantUniqueName + CollectionType.MAIN.getCollectionType() + " doesn't exists.");
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+        // Exports are streamed from a cursor, so they are not capped like search results.
+        Query query = ContactSearchQueryBuilder.build(search, 0);
+        if (fields != null && !fields.isEmpty()) {
+            for (String field : fields) {
+                if (!isExportableField(field)) {
+                    throw new CustomHttpException("Field is not valid: " + field, 400, ExceptionCause.USER_ERROR);
+                }
+                if (!field.startsWith("props.") || !fields.contains("props")) {
+                    query.fields().include("id".equals(field) ? "_id" : field);
+                }
+            }
+        } else {
+            query.fields().exclude("_class");
+        }
+        return mongoTemplate.stream(query, Document.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+    }
+
+    private static boolean isExportableField(String field) {
+        if (field.startsWith("props.")) {
+            String key = field.substring("props.".length());
+            return !key.isEmpty() && !key.contains(".") && !key.startsWith("$");
+        }
+        return EXPORTABLE_FIELDS.contains(field);
+    }
+
+    public CursorPage<ContactDTO> findContactsPage(String tenantUniqueName, boolean deleted, String cursor, Integer limit) {
+        if (tenantUniqueName.isEmpty()) {
+            log.log(Level.WARNING, "TenantUniqueName is empty", tenantUniqueName);
+            throw new CustomHttpException(ExceptionMessage.TENANT_NAME_EMPTY.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
+        }
+        String collectionName = tenantUniqueName + (deleted ? CollectionType.DELETED.getCollectionType() : CollectionType.MAIN.getCollectionType());
+        if (!mongoTemplateService.collectionExists(collectionName)) {
+            log.log(Level.WARNING, "Tenant collection " + collectionName + " doesn't exists.");
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+        int pageSize = CursorPage.resolvePageSize(limit);
+
+        Query query = new Query()
+                .with(Sort.by(Sort.Order.asc("createdAt"), Sort.Order.asc("_id")))
+                .limit(pageSize + 1);
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            // Contacts without createdAt sort first, so a cursor among them continues by _id and then moves on to dated contacts.
+            Criteria after = pageCursor.getTime() == null
+                    ? Criteria.where("createdAt").ne(null)
+                    : Criteria.where("createdAt").gt(pageCursor.getTime());
+            query.addCriteria(new Criteria().orOperator(
+                    after,
+                    Criteria.where("createdAt").is(pageCursor.getTime()).and("_id").gt(pageCursor.getId())
+            ));
+        }
+
+        List<Contact> contacts = mongoTemplate.find(query, Contact.class, collectionName);
+        boolean hasMore = contacts.size() > pageSize;
+        String nextCursor = null;
+        if (hasMore) {
+            contacts = contacts.subList(0, pageSize);
+            Contact last = contacts.getLast();
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        log.log(Level.INFO, "Page of {0} contacts found for tenant: {1}", new Object[]{contacts.size(), tenantUniqueName});
+        return CursorPage.<ContactDTO>builder()
+                .items(contacts.stream().map(this::convertToDTO).toList())
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     public String createContact(ContactDTO contactDTO, String username, Boolean duplicateCheck) {
-        ContactDTO sanitizedContactDTO = new ContactDTO();
-        sanitizedContactDTO.setId(StringEscapeUtils.escapeHtml4(contactDTO.getId()));
-        sanitizedContactDTO.setTitle(StringEscapeUtils.escapeHtml4(contactDTO.getTitle()));
-        sanitizedContactDTO.setUser(StringEscapeUtils.escapeHtml4(contactDTO.getUser()));
-        sanitizedContactDTO.setTenantUniqueName(StringEscapeUtils.escapeHtml4(contactDTO.getTenantUniqueName()));
-        sanitizedContactDTO.setComments(StringEscapeUtils.escapeHtml4(contactDTO.getComments()));
-        sanitizedContactDTO.setCreatedAt(StringEscapeUtils.escapeHtml4(contactDTO.getCreatedAt()));
-        sanitizedContactDTO.setTags(contactDTO.getTags().stream().map(StringEscapeUtils::escapeHtml4).toList());
-        sanitizedContactDTO.setProps(contactDTO.getProps().entrySet().stream().collect(Collectors.toMap(entry -> StringEscapeUtils.escapeHtml4(entry.getKey()), entry -> StringEscapeUtils.escapeHtml4(entry.getValue()))));
-        sanitizedContactDTO.setAttributesToString(StringEscapeUtils.escapeHtml4(contactDTO.getAttributesToString()));
-        sanitizedContactDTO.setCreatedAt(LocalDateTime.now().toString());
+        ContactDTO sanitizedContactDTO = sanitizeContact(contactDTO);
         Contact contact = convertToEntity(sanitizedContactDTO);
         if (contact.getTenantUniqueName().isEmpty()) {
             log.log(Level.WARNING, "TenantUniqueName is empty in contact: " + contact.getTitle(), contact);
@@ -159,12 +280,19 @@ public class ContactServices {
         }
         contact.setId(contact.generateId(contact.getTitle()));
         contact.setAttributesToString(contact.contactAttributesToString());
+        boolean duplicate = Boolean.TRUE.equals(duplicateCheck);
+        if (!duplicate && duplicateDetector.hasDuplicate(contact.getTenantUniqueName(), contact)) {
+            log.log(Level.WARNING, "Contact {0} shares a title, email or phone with an existing contact", contact.getId());
+            duplicate = true;
+        }
         mongoTemplate.save(contact, contact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType());
+        contactSearchIndex.index(contact.getTenantUniqueName(), contact);
+        duplicateDetector.index(contact.getTenantUniqueName(), contact);
         tenantServices.addTags(contact.getTenantUniqueName(), contact.getTags());
         tenantServices.addLabels(contact.getTenantUniqueName(), contact.getProps().keySet());
 
         Event event;
-        if (duplicateCheck){
+        if (duplicate){
             event = new Event(username, contact.getId(), EventState.DUPLICATED);
         } else {
             event = new Event(username, contact.getId(), EventState.CREATED);
@@ -176,6 +304,21 @@ public class ContactServices {
         return "Contact created successfully to " + contact.getTenantUniqueName() + "_main collection";
     }
 
+    private ContactDTO sanitizeContact(ContactDTO contactDTO) {
+        ContactDTO sanitizedContactDTO = new ContactDTO();
+        sanitizedContactDTO.setId(StringEscapeUtils.escapeHtml4(contactDTO.getId()));
+        sanitizedContactDTO.setTitle(StringEscapeUtils.escapeHtml4(contactDTO.getTitle()));
+        sanitizedContactDTO.setUser(StringEscapeUtils.escapeHtml4(contactDTO.getUser()));
+        sanitizedContactDTO.setTenantUniqueName(StringEscapeUtils.escapeHtml4(contactDTO.getTenantUniqueName()));
+        sanitizedContactDTO.setComments(StringEscapeUtils.escapeHtml4(contactDTO.getComments()));
+        sanitizedContactDTO.setCreatedAt(StringEscapeUtils.escapeHtml4(contactDTO.getCreatedAt()));
+        sanitizedContactDTO.setTags(contactDTO.getTags().stream().map(StringEscapeUtils::escapeHtml4).toList());
+        sanitizedContactDTO.setProps(contactDTO.getProps().entrySet().stream().collect(Collectors.toMap(entry -> StringEscapeUtils.escapeHtml4(entry.getKey()), entry -> StringEscapeUtils.escapeHtml4(entry.getValue()))));
+        sanitizedContactDTO.setAttributesToString(StringEscapeUtils.escapeHtml4(contactDTO.getAttributesToString()));
+        sanitizedContactDTO.setCreatedAt(LocalDateTime.now().toString());
+        return sanitizedContactDTO;
+    }
+
     public ContactDTO updateContact(ContactDTO contactDTO, String username) {
         Contact contact = convertToEntity(contactDTO);
         if (contact.getTenantUniqueName().isEmpty()) {
@@ -215,6 +358,8 @@ public class ContactServices {
             tenantServices.addLabels(existingContact.getTenantUniqueName(), contact.getProps().keySet());
 
             mongoTemplate.save(existingContact, existingContact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType());
+            contactSearchIndex.index(existingContact.getTenantUniqueName(), existingContact);
+            duplicateDetector.index(existingContact.getTenantUniqueName(), existingContact);
             log.log(Level.INFO, String.format("Contact updated with id: %s %s %s ", contact.getId(), FOR_TENANT, contact.getTenantUniqueName()));
             return convertToDTO(existingContact);
         } else {
@@ -240,6 +385,8 @@ public class ContactServices {
         mongoTemplate.remove(contact, tenantUniqueName + CollectionType.DELETED.getCollectionType());
         log.log(Level.INFO, String.format("Contact reverted with id: %s %s %s ", contact.getId(), FOR_TENANT, contact.getTenantUniqueName()));
         mongoTemplate.save(contact, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        contactSearchIndex.index(tenantUniqueName, contact);
+        duplicateDetector.index(tenantUniqueName, contact);
         log.log(Level.INFO, "Contact saved to {} _main collection", tenantUniqueName);
 
         Event event = new Event(username, contact.getId(), EventState.REVERTED);
@@ -276,6 +423,8 @@ public class ContactServices {
             return "Contact deleted permanently from " + tenantUniqueName + "_deleted collection";
         }
         mongoTemplate.remove(contact, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        contactSearchIndex.remove(tenantUniqueName, contact.getId());
+        duplicateDetector.remove(tenantUniqueName, contact.getId());
         log.log(Level.INFO, String.format("Contact deleted with id: %s %s %s ", contact.getId(), FOR_TENANT, contact.getTenantUniqueName()));
         mongoTemplate.save(contact, tenantUniqueName + CollectionType.DELETED.getCollectionType());
         log.log(Level.INFO, "Contact saved to {} _deleted collection", tenantUniqueName);
@@ -298,24 +447,38 @@ public class ContactServices {
             throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
         }
 
-        List<Contact> contacts = contactIds.stream()
-                .map(id -> mongoTemplate.findById(id, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType()))
-                .filter(Objects::nonNull)
-                .toList();
+        Query targetQuery = new Query(Criteria.where("_id").in(new HashSet<>(contactIds)));
+        List<Contact> contacts = mongoTemplate.find(targetQuery, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
 
         if (contacts.isEmpty()) {
             log.log(Level.WARNING, "No contacts found for the provided IDs");
             throw new CustomHttpException("No contacts found for the provided IDs", 404, ExceptionCause.USER_ERROR);
         }
 
-        for (Contact contact : contacts) {
-            mongoTemplate.remove(contact, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-            mongoTemplate.save(contact, tenantUniqueName + CollectionType.DELETED.getCollectionType());
-
-            Event event = new Event(username, contact.getId(), EventState.DELETED);
-            eventsServices.addEvent(event, contact.getTenantUniqueName());
+        List<String> foundIds = contacts.stream().map(Contact::getId).toList();
+        Query foundQuery = new Query(Criteria.where("_id").in(foundIds));
+        Runnable moveContacts = () -> {
+            mongoTemplate.remove(foundQuery, tenantUniqueName + CollectionType.DELETED.getCollectionType());
+            mongoTemplate.insert(contacts, tenantUniqueName + CollectionType.DELETED.getCollectionType());
+            mongoTemplate.remove(foundQuery, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        };
+        if (transactionTemplate != null) {
+            transactionTemplate.executeWithoutResult(status -> moveContacts.run());
+        } else {
+            moveContacts.run();
+        }
 
-            tenantServices.removeTags(tenantUniqueName, contact.getTags());
+        Map<String, Integer> tagDeltas = new HashMap<>();
+        List<Event> events = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            contactSearchIndex.remove(tenantUniqueName, contact.getId());
+            duplicateDetector.remove(tenantUniqueName, contact.getId());
+            contact.getTags().forEach(tag -> tagDeltas.merge(tag, -1, Integer::sum));
+            events.add(new Event(username, contact.getId(), EventState.DELETED));
+        }
+        eventsServices.addEvents(events, tenantUniqueName);
+        if (!tagDeltas.isEmpty()) {
+            tenantServices.applyTagDeltas(tenantUniqueName, tagDeltas);
         }
 
         log.log(Level.INFO, "Contacts deleted and moved to deleted collection for tenant: {0}", tenantUniqueName);
@@ -331,46 +494,20 @@ public class ContactServices {
             log.log(Level.WARNING, "Collection not exist: " + search.getOnTenant() + CollectionType.MAIN.getCollectionType(), search.getOnTenant() + CollectionType.MAIN.getCollectionType());
             throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 404, ExceptionCause.SERVER_ERROR);
         }
-        if (search.getSearchQuery().isEmpty()) {
-            log.log(Level.INFO, "Search query is empty!");
-            List<Contact> onlyFilteredContacts = mongoTemplate.findAll(Contact.class, search.getOnTenant() + CollectionType.MAIN.getCollectionType()).stream().filter(contact -> new HashSet<>(contact.getTags()).containsAll(search.getFilter())).collect(Collectors.toList());
-            Comparator<Contact> comparator = getComparatorBasedOnOrientation(search.getSortOrientation());
-            onlyFilteredContacts.sort(comparator);
-            return onlyFilteredContacts.stream().map(this::convertToDTO).toList();
-        }
-        List<Contact> allContactsByQuery = getContactsBySearchQuery(search.getSearchQuery(), mongoTemplate.findAll(Contact.class, search.getOnTenant() + CollectionType.MAIN.getCollectionType()), search.getSortOrientation());
-        if (search.getFilter().isEmpty()) {
-            log.log(Level.INFO, "Filter is empty!");
-            return allContactsByQuery.stream().map(this::convertToDTO).toList();
-        }
-        log.log(Level.INFO, "Return filteredContacts!");
-        List<Contact> filteredContacts = allContactsByQuery.stream().filter(contact -> new HashSet<>(contact.getTags()).containsAll(search.getFilter())).toList();
-        return filteredContacts.stream().map(this::convertToDTO).toList();
-    }
-
-    public List<Contact> getContactsBySearchQuery(String searchQuery, List<Contact> contacts, SortOrientation sortOrientation) {
-        if (searchQuery.contains("&")) {
-            List<String> andQueries = Arrays.asList(searchQuery.split("&"));
-            return contacts.stream()
-                    .filter(contact -> andQueries.stream().allMatch(query -> contact.getAttributesToString().toLowerCase().contains(query.toLowerCase())))
-                    .collect(Collectors.toList());
-        }
-        if (!searchQuery.contains("\\|")) {
-            List<String> orQueries = Arrays.asList(searchQuery.split("\\|"));
-            return contacts.stream()
-                    .filter(contact -> orQueries.stream().anyMatch(query -> contact.getAttributesToString().toLowerCase().contains(query.toLowerCase())))
-                    .collect(Collectors.toList());
-
+        Query query;
+        if (contactSearchIndex.isEnabled()) {
+            // Capped in the index, so the $in below never holds more than MAX_RESULTS ids.
+            List<String> contactIds = contactSearchIndex.search(search, ContactSearchQueryBuilder.MAX_RESULTS);
+            if (contactIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+            query = new Query(Criteria.where("_id").in(contactIds)).with(ContactSearchQueryBuilder.buildSort(search.getSortOrientation())).limit(ContactSearchQueryBuilder.MAX_RESULTS);
+        } else {
+            query = ContactSearchQueryBuilder.build(search);
         }
-
-        List<Contact> filteredContacts = contacts.stream()
-                .filter(contact -> contact.getAttributesToString().contains(searchQuery.toLowerCase()))
-                .collect(Collectors.toList());
-
-        Comparator<Contact> comparator = getComparatorBasedOnOrientation(sortOrientation);
-        filteredContacts.sort(comparator);
-
-        return filteredContacts;
+        List<Contact> contacts = mongoTemplate.find(query, Contact.class, search.getOnTenant() + CollectionType.MAIN.getCollectionType());
+        log.log(Level.INFO, "Search returned {0} contacts for tenant: {1}", new Object[]{contacts.size(), search.getOnTenant()});
+        return contacts.stream().map(this::convertToDTO).toList();
     }
 
     public Comparator<Contact> getComparatorBasedOnOrientation(SortOrientation sortOrientation) {
@@ -382,6 +519,7 @@ public class ContactServices {
     }
 
     public void saveAllContacts(List<ContactDTO> contacts) {
+        Map<String, List<Contact>> contactsByTenant = new LinkedHashMap<>();
         for (ContactDTO contactDTO : contacts) {
             Contact contact = convertToEntity(contactDTO);
             if (contact.getTenantUniqueName().isEmpty()) {
@@ -392,73 +530,310 @@ public class ContactServices {
                 log.log(Level.WARNING, "Contact title is empty!", contact);
                 throw new CustomHttpException("Contact title is empty", 400, ExceptionCause.USER_ERROR);
             }
-            if (!mongoTemplateService.collectionExists(contact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType())) {
-                log.log(Level.WARNING, "Collection not exist: " + contact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType(), contact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType());
+            contactsByTenant.computeIfAbsent(contact.getTenantUniqueName(), key -> new ArrayList<>()).add(contact);
+        }
+
+        for (Map.Entry<String, List<Contact>> tenantContacts : contactsByTenant.entrySet()) {
+            String tenantUniqueName = tenantContacts.getKey();
+            if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+                log.log(Level.WARNING, "Collection not exist: " + tenantUniqueName + CollectionType.MAIN.getCollectionType(), tenantUniqueName + CollectionType.MAIN.getCollectionType());
                 throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
             }
+            List<Contact> tenantContactList = tenantContacts.getValue();
+            int batchSize = resolveImportBatchSize();
+            for (int from = 0; from < tenantContactList.size(); from += batchSize) {
+                saveContactBatch(tenantUniqueName, tenantContactList.subList(from, Math.min(from + batchSize, tenantContactList.size())));
+            }
+        }
+    }
 
+    private void saveContactBatch(String tenantUniqueName, List<Contact> batch) {
+        Map<String, Integer> tagDeltas = new HashMap<>();
+        Set<String> labelKeys = new HashSet<>();
+        List<Event> events = new ArrayList<>(batch.size());
+        for (Contact contact : batch) {
             contact.setId(contact.generateId(contact.getTitle()));
             contact.setAttributesToString(contact.contactAttributesToString());
+            contact.getTags().forEach(tag -> tagDeltas.merge(tag, 1, Integer::sum));
+            labelKeys.addAll(contact.getProps().keySet());
+            events.add(new Event(contact.getUser(), contact.getId(), EventState.CREATED));
+        }
 
-            mongoTemplate.save(contact, contact.getTenantUniqueName() + CollectionType.MAIN.getCollectionType());
-
-            tenantServices.addTags(contact.getTenantUniqueName(), contact.getTags());
-            tenantServices.addLabels(contact.getTenantUniqueName(), contact.getProps().keySet());
-
-            Event event = new Event(contact.getUser(), contact.getId(), EventState.CREATED);
-            eventsServices.addEvent(event, contact.getTenantUniqueName());
+        mongoTemplate.insert(batch, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        batch.forEach(contact -> {
+            contactSearchIndex.index(tenantUniqueName, contact);
+            duplicateDetector.index(tenantUniqueName, contact);
+        });
 
-            log.log(Level.INFO, String.format("Contact created with id: %s for tenant: %s", contact.getId(), contact.getTenantUniqueName()));
+        if (!tagDeltas.isEmpty()) {
+            tenantServices.applyTagDeltas(tenantUniqueName, tagDeltas);
         }
+        if (!labelKeys.isEmpty()) {
+            tenantServices.addLabels(tenantUniqueName, labelKeys);
+        }
+        eventsServices.addEvents(events, tenantUniqueName);
+
+        log.log(Level.INFO, "Imported {0} contacts for tenant: {1}", new Object[]{batch.size(), tenantUniqueName});
     }
 
-    public Map<String, List<ContactDTO>> findDuplicateContactsByTitleAndEmail(String tenantUniqueName) {
-        if (tenantUniqueName.isEmpty()) {
-            log.log(Level.WARNING, "TenantUniqueName is empty!");
+    public BulkContactResponseDTO bulkCreateContacts(String tenantUniqueName, List<ContactDTO> contacts, String username) {
+        if (tenantUniqueName == null || tenantUniqueName.isEmpty()) {
             throw new CustomHttpException(ExceptionMessage.TENANT_NAME_EMPTY.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
         }
-        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
-            log.log(Level.WARNING, "Collection not exist: " + tenantUniqueName + CollectionType.MAIN.getCollectionType(), tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        String collectionName = tenantUniqueName + CollectionType.MAIN.getCollectionType();
+        if (!mongoTemplateService.collectionExists(collectionName)) {
+            log.log(Level.WARNING, "Collection not exist: " + collectionName);
             throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
         }
 
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        BulkContactResultDTO[] results = new BulkContactResultDTO[contacts.size()];
+        List<Contact> pending = new ArrayList<>();
+        List<Integer> pendingRows = new ArrayList<>();
+        Set<String> requestedIds = new HashSet<>();
+        for (int row = 0; row < contacts.size(); row++) {
+            ContactDTO contactDTO = contacts.get(row);
+            String error = validateBulkContact(contactDTO, tenantUniqueName);
+            if (error != null) {
+                results[row] = bulkResult(row, contactDTO == null ? null : contactDTO.getId(), BulkContactStatus.VALIDATION_ERROR, error);
+                continue;
+            }
+            Contact contact = convertToEntity(sanitizeContact(contactDTO));
+            contact.setUser(username);
+            contact.setTenantUniqueName(tenantUniqueName);
+            if (contact.getId() == null || contact.getId().isEmpty()) {
+                contact.setId(contact.generateId(contact.getTitle()));
+            } else if (!requestedIds.add(contact.getId())) {
+                results[row] = bulkResult(row, contact.getId(), BulkContactStatus.DUPLICATE_ID, "Id is repeated in the request");
+                continue;
+            }
+            contact.setAttributesToString(contact.contactAttributesToString());
+            pending.add(contact);
+            pendingRows.add(row);
+        }
+
+        Set<String> existingIds = findExistingIds(collectionName, requestedIds);
+        Set<String> acceptedKeys = new HashSet<>();
+        List<Contact> batch = new ArrayList<>();
+        List<Integer> batchRows = new ArrayList<>();
+        List<Boolean> batchRepeated = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            Contact contact = pending.get(i);
+            int row = pendingRows.get(i);
+            if (existingIds.contains(contact.getId())) {
+                results[row] = bulkResult(row, contact.getId(), BulkContactStatus.DUPLICATE_ID, "Contact already exists");
+                continue;
+            }
+            boolean repeated = false;
+            for (String key : DuplicateDetector.duplicateKeys(contact.getTitle(), contact.getProps())) {
+                repeated |= !acceptedKeys.add(key);
+            }
+            batch.add(contact);
+            batchRows.add(row);
+            batchRepeated.add(repeated);
+            if (batch.size() >= resolveImportBatchSize()) {
+                insertContactBulk(tenantUniqueName, batch, batchRows, batchRepeated, results, username);
+                batch = new ArrayList<>();
+                batchRows = new ArrayList<>();
+                batchRepeated = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insertContactBulk(tenantUniqueName, batch, batchRows, batchRepeated, results, username);
+        }
+
+        List<BulkContactResultDTO> resultList = Arrays.asList(results);
+        int created = (int) resultList.stream().filter(result -> result.getStatus() == BulkContactStatus.CREATED).count();
+        log.log(Level.INFO, "Bulk created {0} of {1} contacts for tenant: {2}", new Object[]{created, contacts.size(), tenantUniqueName});
+        return BulkContactResponseDTO.builder()
+                .created(created)
+                .failed(resultList.size() - created)
+                .results(resultList)
+                .build();
+    }
+
+    private String validateBulkContact(ContactDTO contactDTO, String tenantUniqueName) {
+        if (contactDTO == null) {
+            return "Contact is empty";
+        }
+        if (contactDTO.getTitle() == null || contactDTO.getTitle().isBlank()) {
+            return "Contact title is empty";
+        }
+        if (contactDTO.getTenantUniqueName() != null && !contactDTO.getTenantUniqueName().isEmpty() && !contactDTO.getTenantUniqueName().equals(tenantUniqueName)) {
+            return "Contact belongs to another tenant";
+        }
+        if (contactDTO.getTags() == null) {
+            contactDTO.setTags(new ArrayList<>());
+        }
+        if (contactDTO.getProps() == null) {
+            contactDTO.setProps(new HashMap<>());
+        }
+        // Immutable collections throw on contains(null), so the nulls are looked for by streaming.
+        if (contactDTO.getTags().stream().anyMatch(Objects::isNull)
+                || contactDTO.getProps().entrySet().stream().anyMatch(entry -> entry.getKey() == null || entry.getValue() == null)) {
+            return "Contact tags and props must not contain null values";
+        }
+        return null;
+    }
 
-        Map<String, List<Contact>> potentialDuplicatesByTitle = contacts.stream()
-                .collect(Collectors.groupingBy(contact -> contact.getTitle().toLowerCase()));
+    private Set<String> findExistingIds(String collectionName, Set<String> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("_id");
+        return mongoTemplate.find(query, Document.class, collectionName).stream()
+                .map(document -> document.getString("_id"))
+                .collect(Collectors.toSet());
+    }
 
-        Map<String, List<Contact>> potentialDuplicatesByEmail = contacts.stream()
-                .filter(contact -> contact.getProps() != null && contact.getProps().containsKey("email"))
-                .collect(Collectors.groupingBy(contact -> contact.getProps().get("email").toLowerCase()));
+    private void insertContactBulk(String tenantUniqueName, List<Contact> batch, List<Integer> rows, List<Boolean> repeated, BulkContactResultDTO[] results, String username) {
+        boolean[] duplicated = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            duplicated[i] = repeated.get(i) || duplicateDetector.hasDuplicate(tenantUniqueName, batch.get(i));
+        }
+
+        Set<Integer> failed = new HashSet<>();
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        bulkOperations.insert(batch);
+        try {
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                int position = error.getIndex();
+                failed.add(position);
+                BulkContactStatus status = error.getCode() == DUPLICATE_KEY_ERROR ? BulkContactStatus.DUPLICATE_ID : BulkContactStatus.FAILED;
+                results[rows.get(position)] = bulkResult(rows.get(position), batch.get(position).getId(), status, error.getMessage());
+            }
+        } catch (DataAccessException e) {
+            log.log(Level.SEVERE, "Bulk insert of " + batch.size() + " contacts failed for tenant: " + tenantUniqueName, e);
+            for (int i = 0; i < batch.size(); i++) {
+                results[rows.get(i)] = bulkResult(rows.get(i), batch.get(i).getId(), BulkContactStatus.FAILED, e.getMessage());
+            }
+            return;
+        }
 
-        Map<String, List<ContactDTO>> duplicates = new HashMap<>();
+        Map<String, Integer> tagDeltas = new HashMap<>();
+        Set<String> labelKeys = new HashSet<>();
+        List<Event> events = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (failed.contains(i)) {
+                continue;
+            }
+            Contact contact = batch.get(i);
+            contactSearchIndex.index(tenantUniqueName, contact);
+            duplicateDetector.index(tenantUniqueName, contact);
+            contact.getTags().forEach(tag -> tagDeltas.merge(tag, 1, Integer::sum));
+            labelKeys.addAll(contact.getProps().keySet());
+            events.add(new Event(username, contact.getId(), duplicated[i] ? EventState.DUPLICATED : EventState.CREATED));
+            results[rows.get(i)] = bulkResult(rows.get(i), contact.getId(), BulkContactStatus.CREATED, null);
+        }
 
-        potentialDuplicatesByTitle.entrySet().stream()
-                .filter(entry -> entry.getValue().size() > 1)
-                .forEach(entry -> duplicates.put(entry.getKey(), entry.getValue().stream().map(this::convertToDTO).collect(Collectors.toList())));
+        if (!tagDeltas.isEmpty()) {
+            tenantServices.applyTagDeltas(tenantUniqueName, tagDeltas);
+        }
+        if (!labelKeys.isEmpty()) {
+            tenantServices.addLabels(tenantUniqueName, labelKeys);
+        }
+        eventsServices.addEvents(events, tenantUniqueName);
+    }
 
-        potentialDuplicatesByEmail.entrySet().stream()
-                .filter(entry -> entry.getValue().size() > 1)
-                .forEach(entry -> {
-                    String emailKey = entry.getKey();
+    private BulkContactResultDTO bulkResult(int row, String id, BulkContactStatus status, String message) {
+        return BulkContactResultDTO.builder()
+                .index(row)
+                .id(id)
+                .status(status)
+                .message(message)
+                .build();
+    }
 
-                    List<ContactDTO> existingContacts = duplicates.values().stream()
-                            .flatMap(List::stream)
-                            .filter(dto -> entry.getValue().stream()
-                                    .anyMatch(contact -> contact.getProps().get("email").equalsIgnoreCase(dto.getProps().get("email"))))
-                            .collect(Collectors.toList());
+    private int resolveImportBatchSize() {
+        return importBatchSize == null || importBatchSize <= 0 ? DEFAULT_IMPORT_BATCH_SIZE : importBatchSize;
+    }
 
-                    if (existingContacts.isEmpty()) {
-                        duplicates.merge(emailKey, entry.getValue().stream().map(this::convertToDTO).collect(Collectors.toList()), (existingValue, newValue) -> {
-                            existingValue.addAll(newValue);
-                            return existingValue;
-                        });
-                    }
-                });
+    public Map<String, List<ContactDTO>> findDuplicateContactsByTitleAndEmail(String tenantUniqueName) {
+        checkDuplicatesCollection(tenantUniqueName);
+        List<DuplicateDetector.Group> groups = duplicateDetector.detect(tenantUniqueName, EnumSet.of(DuplicateMatchKey.TITLE, DuplicateMatchKey.EMAIL), false);
+        Map<String, ContactDTO> contacts = findContactsForGroups(tenantUniqueName, groups);
 
+        Map<String, List<ContactDTO>> duplicates = new LinkedHashMap<>();
+        for (DuplicateDetector.Group group : groups) {
+            duplicates.merge(group.key(), toContactList(group, contacts), (existingValue, newValue) -> {
+                existingValue.addAll(newValue);
+                return existingValue;
+            });
+        }
         return duplicates;
     }
 
+    public CursorPage<DuplicateGroupDTO> findDuplicateGroupsPage(String tenantUniqueName, Set<DuplicateMatchKey> keys, boolean fuzzy, String cursor, Integer limit) {
+        checkDuplicatesCollection(tenantUniqueName);
+        Set<DuplicateMatchKey> matchKeys = keys == null || keys.isEmpty() ? EnumSet.of(DuplicateMatchKey.TITLE, DuplicateMatchKey.EMAIL) : EnumSet.copyOf(keys);
+        int pageSize = CursorPage.resolvePageSize(limit);
+        String after = cursor == null || cursor.isEmpty() ? null : decodeDuplicateCursor(cursor);
+
+        List<DuplicateDetector.Group> groups = duplicateDetector.detect(tenantUniqueName, matchKeys, fuzzy).stream()
+                .filter(group -> after == null || group.label().compareTo(after) > 0)
+                .limit(pageSize + 1L)
+                .collect(Collectors.toCollection(ArrayList::new));
+        boolean hasMore = groups.size() > pageSize;
+        String nextCursor = null;
+        if (hasMore) {
+            groups = new ArrayList<>(groups.subList(0, pageSize));
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(groups.getLast().label().getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, ContactDTO> contacts = findContactsForGroups(tenantUniqueName, groups);
+        List<DuplicateGroupDTO> items = groups.stream()
+                .map(group -> DuplicateGroupDTO.builder()
+                        .key(group.key())
+                        .matchKey(group.matchKey())
+                        .contacts(toContactList(group, contacts))
+                        .build())
+                .toList();
+        return CursorPage.<DuplicateGroupDTO>builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    private void checkDuplicatesCollection(String tenantUniqueName) {
+        if (tenantUniqueName.isEmpty()) {
+            log.log(Level.WARNING, "TenantUniqueName is empty!");
+            throw new CustomHttpException(ExceptionMessage.TENANT_NAME_EMPTY.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
+        }
+        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+            log.log(Level.WARNING, "Collection not exist: " + tenantUniqueName + CollectionType.MAIN.getCollectionType(), tenantUniqueName + CollectionType.MAIN.getCollectionType());
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+    }
+
+    private Map<String, ContactDTO> findContactsForGroups(String tenantUniqueName, List<DuplicateDetector.Group> groups) {
+        Set<String> ids = new HashSet<>();
+        groups.forEach(group -> ids.addAll(group.contactIds()));
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        return mongoTemplate.find(query, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType()).stream()
+                .collect(Collectors.toMap(Contact::getId, this::convertToDTO));
+    }
+
+    private List<ContactDTO> toContactList(DuplicateDetector.Group group, Map<String, ContactDTO> contacts) {
+        return group.contactIds().stream()
+                .map(contacts::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private String decodeDuplicateCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new CustomHttpException("Invalid page cursor", 400, ExceptionCause.USER_ERROR);
+        }
+    }
+
     public String mergeContacts(String targetContactId, String sourceContactId, String tenantUniqueName, String username) {
         Contact targetContact = mongoTemplate.findById(targetContactId, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
         Contact sourceContact = mongoTemplate.findById(sourceContactId, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
@@ -487,8 +862,12 @@ public class ContactServices {
         targetContact.setProps(mergedProps);
 
         mongoTemplate.save(targetContact, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        contactSearchIndex.index(tenantUniqueName, targetContact);
+        duplicateDetector.index(tenantUniqueName, targetContact);
 
         mongoTemplate.remove(sourceContact, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        contactSearchIndex.remove(tenantUniqueName, sourceContact.getId());
+        duplicateDetector.remove(tenantUniqueName, sourceContact.getId());
         log.log(Level.INFO, "Contacts merged successfully!");
 
         return "Contacts merged successfully";
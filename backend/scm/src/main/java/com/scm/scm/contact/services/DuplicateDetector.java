@@ -0,0 +1,284 @@
+package com.scm.scm.contact.services;
+
+import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.contact.vao.DuplicateMatchKey;
+import com.scm.scm.support.mongoTemplate.CollectionType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+@Service
+public class DuplicateDetector {
+
+    private static final Logger log = Logger.getLogger(DuplicateDetector.class.toString());
+
+    private static final int MIN_FUZZY_LENGTH = 5;
+    private static final int MIN_PHONE_DIGITS = 6;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean indexEnabled;
+    private final int window;
+    private final int maxDistance;
+    private final TenantIndexes<TenantDuplicates> tenantIndexes = new TenantIndexes<>(this::buildTenantIndex);
+
+    @Autowired
+    public DuplicateDetector(MongoTemplate mongoTemplate, @Value("${scm.duplicates.index.enabled:false}") boolean indexEnabled,
+                             @Value("${scm.duplicates.fuzzy.window:5}") int window, @Value("${scm.duplicates.fuzzy.max-distance:2}") int maxDistance) {
+        this.mongoTemplate = mongoTemplate;
+        this.indexEnabled = indexEnabled;
+        this.window = Math.max(window, 2);
+        this.maxDistance = Math.max(maxDistance, 0);
+    }
+
+    public record Group(String key, DuplicateMatchKey matchKey, List<String> contactIds) {
+        public String label() {
+            return matchKey.name() + ":" + key;
+        }
+    }
+
+    public List<Group> detect(String tenantUniqueName, Set<DuplicateMatchKey> keys, boolean fuzzy) {
+        TenantDuplicates duplicates = indexEnabled
+                ? tenantIndexes.get(tenantUniqueName)
+                : buildTenantIndex(tenantUniqueName);
+        List<Group> result = duplicates.detect(keys, fuzzy, window, maxDistance);
+        log.log(Level.INFO, "Found {0} duplicate groups for tenant: {1}", new Object[]{result.size(), tenantUniqueName});
+        return result;
+    }
+
+    // Always false when the duplicate index is disabled.
+    public boolean hasDuplicate(String tenantUniqueName, Contact contact) {
+        if (!indexEnabled) {
+            return false;
+        }
+        TenantDuplicates duplicates = tenantIndexes.get(tenantUniqueName);
+        return duplicates.hasDuplicate(contact.getId(), contact.getTitle(), contact.getProps());
+    }
+
+    public void index(String tenantUniqueName, Contact contact) {
+        if (!indexEnabled) {
+            return;
+        }
+        tenantIndexes.update(tenantUniqueName, duplicates -> duplicates.put(contact.getId(), contact.getTitle(), contact.getProps()));
+    }
+
+    public void remove(String tenantUniqueName, String contactId) {
+        if (!indexEnabled) {
+            return;
+        }
+        tenantIndexes.update(tenantUniqueName, duplicates -> duplicates.remove(contactId));
+    }
+
+    public void invalidate(String tenantUniqueName) {
+        if (tenantIndexes.invalidate(tenantUniqueName)) {
+            log.log(Level.INFO, "Duplicate index invalidated for tenant: {0}", tenantUniqueName);
+        }
+    }
+
+    private TenantDuplicates buildTenantIndex(String tenantUniqueName) {
+        Query query = new Query();
+        query.fields().include("_id").include("title").include("props.email").include("props.phoneNumber").include("props.fullName");
+
+        TenantDuplicates duplicates = new TenantDuplicates();
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, tenantUniqueName + CollectionType.MAIN.getCollectionType())) {
+            documents.forEach(document -> duplicates.put(document.get("_id").toString(), document.getString("title"), document.get("props", Document.class)));
+        }
+        return duplicates;
+    }
+
+    static String normalize(DuplicateMatchKey key, String title, Map<String, ?> props) {
+        String value = switch (key) {
+            case TITLE -> title == null ? null : title.trim().replaceAll("\\s+", " ").toLowerCase();
+            case EMAIL -> prop(props, "email") == null ? null : prop(props, "email").trim().toLowerCase();
+            case PHONE -> {
+                String phone = prop(props, "phoneNumber");
+                String digits = phone == null ? "" : phone.replaceAll("\\D", "");
+                yield digits.length() < MIN_PHONE_DIGITS ? null : digits;
+            }
+            case NAME -> {
+                String name = prop(props, "fullName") != null ? prop(props, "fullName") : title;
+                yield name == null ? null : name.toLowerCase().replaceAll("[^\\p{L}\\p{N}]", "");
+            }
+        };
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    static List<String> duplicateKeys(String title, Map<String, ?> props) {
+        List<String> keys = new ArrayList<>(3);
+        for (DuplicateMatchKey key : EnumSet.of(DuplicateMatchKey.TITLE, DuplicateMatchKey.EMAIL, DuplicateMatchKey.PHONE)) {
+            String value = normalize(key, title, props);
+            if (value != null) {
+                keys.add(key.name() + ":" + value);
+            }
+        }
+        return keys;
+    }
+
+    private static String prop(Map<String, ?> props, String name) {
+        Object value = props == null ? null : props.get(name);
+        return value instanceof String string ? string : null;
+    }
+
+    // Levenshtein distance, returning max + 1 as soon as it is known to exceed max.
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class TenantDuplicates {
+
+        private final Map<String, Set<String>> buckets = new HashMap<>();
+        private final Map<String, List<String>> keysById = new HashMap<>();
+
+        synchronized void put(String id, String title, Map<String, ?> props) {
+            remove(id);
+            List<String> contactKeys = new ArrayList<>(DuplicateMatchKey.values().length);
+            for (DuplicateMatchKey key : DuplicateMatchKey.values()) {
+                String value = normalize(key, title, props);
+                if (value != null) {
+                    String bucket = key.name() + ":" + value;
+                    buckets.computeIfAbsent(bucket, ids -> new HashSet<>(2)).add(id);
+                    contactKeys.add(bucket);
+                }
+            }
+            keysById.put(id, contactKeys);
+        }
+
+        synchronized void remove(String id) {
+            List<String> contactKeys = keysById.remove(id);
+            if (contactKeys == null) {
+                return;
+            }
+            for (String bucket : contactKeys) {
+                Set<String> ids = buckets.get(bucket);
+                if (ids != null) {
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        buckets.remove(bucket);
+                    }
+                }
+            }
+        }
+
+        synchronized boolean hasDuplicate(String id, String title, Map<String, ?> props) {
+            for (String bucket : duplicateKeys(title, props)) {
+                Set<String> ids = buckets.get(bucket);
+                if (ids != null && (ids.size() > 1 || !ids.contains(id))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<Group> detect(Set<DuplicateMatchKey> keys, boolean fuzzy, int window, int maxDistance) {
+            UnionFind groups = new UnionFind();
+            Map<String, String> labels = new TreeMap<>();
+            buckets.forEach((bucket, ids) -> {
+                if (ids.size() > 1 && keys.contains(matchKey(bucket))) {
+                    String first = ids.iterator().next();
+                    ids.forEach(id -> groups.union(first, id));
+                    labels.put(bucket, first);
+                }
+            });
+            if (fuzzy) {
+                List<String[]> names = new ArrayList<>();
+                keysById.forEach((id, contactKeys) -> contactKeys.stream()
+                        .filter(bucket -> matchKey(bucket) == DuplicateMatchKey.NAME)
+                        .map(bucket -> bucket.substring(bucket.indexOf(':') + 1))
+                        .filter(name -> name.length() >= MIN_FUZZY_LENGTH)
+                        .forEach(name -> names.add(new String[]{name, id})));
+                names.sort(Comparator.comparing((String[] name) -> name[0]).thenComparing(name -> name[1]));
+                for (int i = 0; i < names.size(); i++) {
+                    for (int j = i + 1; j < Math.min(names.size(), i + window); j++) {
+                        if (distance(names.get(i)[0], names.get(j)[0], maxDistance) <= maxDistance) {
+                            groups.union(names.get(i)[1], names.get(j)[1]);
+                            labels.putIfAbsent(DuplicateMatchKey.NAME.name() + ":" + names.get(i)[0], names.get(i)[1]);
+                        }
+                    }
+                }
+            }
+
+            Map<String, List<String>> members = new HashMap<>();
+            for (String id : new ArrayList<>(groups.ids())) {
+                members.computeIfAbsent(groups.find(id), root -> new ArrayList<>()).add(id);
+            }
+            List<Group> result = new ArrayList<>();
+            Set<String> labelled = new HashSet<>();
+            labels.forEach((bucket, id) -> {
+                String root = groups.find(id);
+                if (labelled.add(root)) {
+                    List<String> contactIds = members.get(root);
+                    Collections.sort(contactIds);
+                    result.add(new Group(bucket.substring(bucket.indexOf(':') + 1), matchKey(bucket), contactIds));
+                }
+            });
+            result.sort(Comparator.comparing(Group::label));
+            return result;
+        }
+
+        private static DuplicateMatchKey matchKey(String bucket) {
+            return DuplicateMatchKey.valueOf(bucket.substring(0, bucket.indexOf(':')));
+        }
+    }
+
+    private static final class UnionFind {
+
+        private final Map<String, String> parents = new HashMap<>();
+
+        Set<String> ids() {
+            return parents.keySet();
+        }
+
+        String find(String id) {
+            String root = id;
+            while (!root.equals(parents.getOrDefault(root, root))) {
+                root = parents.get(root);
+            }
+            String current = id;
+            while (!current.equals(root)) {
+                String next = parents.get(current);
+                parents.put(current, root);
+                current = next;
+            }
+            parents.putIfAbsent(root, root);
+            return root;
+        }
+
+        void union(String a, String b) {
+            String rootA = find(a);
+            String rootB = find(b);
+            if (!rootA.equals(rootB)) {
+                parents.put(rootB, rootA);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.scm.scm.contact.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Per-tenant indexes built outside the map; updates made during a build are replayed on the result.
+final class TenantIndexes<T> {
+
+    private final Function<String, T> builder;
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    TenantIndexes(Function<String, T> builder) {
+        this.builder = builder;
+    }
+
+    T get(String tenantUniqueName) {
+        Entry<T> entry = entries.get(tenantUniqueName);
+        if (entry == null) {
+            Entry<T> created = new Entry<>(() -> builder.apply(tenantUniqueName));
+            entry = entries.putIfAbsent(tenantUniqueName, created);
+            if (entry == null) {
+                entry = created;
+                created.build.run();
+            }
+        }
+        try {
+            return entry.build.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building index for tenant: " + tenantUniqueName, e);
+        } catch (ExecutionException e) {
+            entries.remove(tenantUniqueName, entry);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void update(String tenantUniqueName, Consumer<T> update) {
+        Entry<T> entry = entries.get(tenantUniqueName);
+        if (entry != null) {
+            entry.apply(update);
+        }
+    }
+
+    boolean invalidate(String tenantUniqueName) {
+        return entries.remove(tenantUniqueName) != null;
+    }
+
+    private static final class Entry<T> {
+
+        private final FutureTask<T> build;
+        private final List<Consumer<T>> pending = new ArrayList<>();
+        private T index;
+
+        Entry(Callable<T> builder) {
+            this.build = new FutureTask<>(() -> publish(builder.call()));
+        }
+
+        private synchronized T publish(T built) {
+            pending.forEach(update -> update.accept(built));
+            pending.clear();
+            index = built;
+            return built;
+        }
+
+        void apply(Consumer<T> update) {
+            T ready;
+            synchronized (this) {
+                if (index == null) {
+                    pending.add(update);
+                    return;
+                }
+                ready = index;
+            }
+            update.accept(ready);
+        }
+    }
+}
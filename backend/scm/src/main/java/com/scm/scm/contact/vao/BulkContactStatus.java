@@ -0,0 +1,8 @@
+package com.scm.scm.contact.vao;
+
+public enum BulkContactStatus {
+    CREATED,
+    DUPLICATE_ID,
+    VALIDATION_ERROR,
+    FAILED
+}
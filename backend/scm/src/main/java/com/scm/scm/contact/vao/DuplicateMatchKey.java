@@ -0,0 +1,8 @@
+package com.scm.scm.contact.vao;
+
+public enum DuplicateMatchKey {
+    TITLE,
+    EMAIL,
+    PHONE,
+    NAME
+}
@@ -0,0 +1,7 @@
+package com.scm.scm.events.dao;
+
+import com.scm.scm.events.vao.ActivityRetention;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ActivityRetentionRepository extends MongoRepository<ActivityRetention, String> {
+}
@@ -1,19 +1,30 @@
 package com.scm.scm.events.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.firebase.auth.FirebaseToken;
+import com.scm.scm.events.dto.EventFilter;
+import com.scm.scm.events.services.ActivityRetentionServices;
 import com.scm.scm.events.services.EventsServices;
+import com.scm.scm.events.vao.ActivityRetention;
 import com.scm.scm.events.vao.Event;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
+import com.scm.scm.support.pagination.CursorPage;
 import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.support.security.UserVerifyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/events")
@@ -22,12 +33,16 @@ public class EventsController {
     private final EventsServices eventsServices;
     private final UserAccessService userAccessService;
     private final UserVerifyService userVerifyService;
+    private final ObjectMapper objectMapper;
+    private final ActivityRetentionServices activityRetentionServices;
 
     @Autowired
-    public EventsController(EventsServices eventsServices, UserAccessService userAccessService, UserVerifyService userVerifyService) {
+    public EventsController(EventsServices eventsServices, UserAccessService userAccessService, UserVerifyService userVerifyService, ObjectMapper objectMapper, ActivityRetentionServices activityRetentionServices) {
         this.eventsServices = eventsServices;
+        this.activityRetentionServices = activityRetentionServices;
         this.userAccessService = userAccessService;
         this.userVerifyService = userVerifyService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping(value = "/{contact_id}/{tenant_unique_name}", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -40,13 +55,69 @@ public class EventsController {
         return ResponseEntity.ok(eventsServices.getAllEventsForContact(contactId, tenantUniqueName));
     }
 
+    @GetMapping(value = "/{contact_id}/{tenant_unique_name}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<Event>> getEventsForContactPage(@PathVariable("contact_id") String contactId, @PathVariable("tenant_unique_name") String tenantUniqueName,
+                                                                     @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                                     @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                                     @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "limit", required = false) Integer limit,
+                                                                     @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(eventsServices.getEventsForContactPage(contactId, tenantUniqueName, from, to, cursor, limit));
+    }
+
     @GetMapping(value = "/{tenant_unique_name}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<List<Event>> getAllEventsForTenant(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken, @RequestHeader("tenantId") String tenantId) {
+    public ResponseEntity<StreamingResponseBody> getAllEventsForTenant(@PathVariable("tenant_unique_name") String tenantUniqueName, EventFilter filter, @RequestHeader("userToken") String userToken, @RequestHeader("tenantId") String tenantId) {
         FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
 
         if (!userAccessService.hasAccessToTenant(decodedToken.getEmail(), tenantId)) {
             throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
         }
-        return ResponseEntity.ok(eventsServices.getAllEventsForTenant(tenantUniqueName));
+        StreamingResponseBody body = outputStream -> {
+            try (Stream<Event> events = eventsServices.streamEventsForTenant(tenantUniqueName, filter);
+                 JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                for (Iterator<Event> iterator = events.iterator(); iterator.hasNext(); ) {
+                    generator.writeObject(iterator.next());
+                }
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping(value = "/{tenant_unique_name}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<CursorPage<Event>> getEventsForTenantPage(@PathVariable("tenant_unique_name") String tenantUniqueName, EventFilter filter,
+                                                                    @RequestParam(name = "cursor", required = false) String cursor, @RequestParam(name = "limit", required = false) Integer limit,
+                                                                    @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(eventsServices.getEventsForTenantPage(tenantUniqueName, filter, cursor, limit));
+    }
+
+    @GetMapping(value = "/retention/{tenant_unique_name}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityRetention> getRetention(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(activityRetentionServices.getRetention(tenantUniqueName));
+    }
+
+    @PutMapping(value = "/retention/{tenant_unique_name}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ActivityRetention> updateRetention(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken, @RequestBody ActivityRetention retention) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(activityRetentionServices.updateRetention(tenantUniqueName, retention));
     }
 }
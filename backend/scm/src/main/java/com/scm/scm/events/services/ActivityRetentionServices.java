@@ -0,0 +1,209 @@
+package com.scm.scm.events.services;
+
+import com.scm.scm.events.dao.ActivityRetentionRepository;
+import com.scm.scm.events.vao.ActivityRetention;
+import com.scm.scm.events.vao.Event;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import com.scm.scm.support.exceptions.ExceptionMessage;
+import com.scm.scm.support.mongoTemplate.CollectionType;
+import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Service
+public class ActivityRetentionServices {
+
+    private static final Logger log = Logger.getLogger(ActivityRetentionServices.class.toString());
+
+    private static final String TTL_INDEX_NAME = "eventTime_ttl";
+    private static final String EVENT_TIME = "eventTime";
+    private static final String ARCHIVE_RUN = "archiveRun";
+    private static final String ARCHIVED_RUNS = "archivedRuns";
+    private static final Duration ABANDONED_RUN = Duration.ofHours(1);
+
+    private final ActivityRetentionRepository activityRetentionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final MongoTemplateService mongoTemplateService;
+
+    @Autowired
+    public ActivityRetentionServices(ActivityRetentionRepository activityRetentionRepository, MongoTemplate mongoTemplate, MongoTemplateService mongoTemplateService) {
+        this.activityRetentionRepository = activityRetentionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.mongoTemplateService = mongoTemplateService;
+    }
+
+    public ActivityRetention getRetention(String tenantUniqueName) {
+        return activityRetentionRepository.findById(tenantUniqueName)
+                .orElse(ActivityRetention.builder().tenantUniqueName(tenantUniqueName).build());
+    }
+
+    public ActivityRetention updateRetention(String tenantUniqueName, ActivityRetention retention) {
+        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType())) {
+            log.severe(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage());
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+        if ((retention.getMaxAgeDays() != null && retention.getMaxAgeDays() <= 0) || (retention.getMaxEvents() != null && retention.getMaxEvents() <= 0)) {
+            throw new CustomHttpException("Retention limits must be positive", 400, ExceptionCause.USER_ERROR);
+        }
+        if (retention.isTtlIndex() && retention.getMaxAgeDays() == null) {
+            throw new CustomHttpException("TTL retention requires maxAgeDays", 400, ExceptionCause.USER_ERROR);
+        }
+        if (retention.isTtlIndex() && retention.isArchive()) {
+            throw new CustomHttpException("TTL retention cannot archive events before they expire", 400, ExceptionCause.USER_ERROR);
+        }
+        retention.setTenantUniqueName(tenantUniqueName);
+        activityRetentionRepository.save(retention);
+        applyTtlIndex(retention);
+        log.log(Level.INFO, "Activity retention updated for tenant: {0}", tenantUniqueName);
+        return retention;
+    }
+
+    @Scheduled(cron = "${scm.events.retention.cron:0 30 3 * * *}")
+    public void enforceAll() {
+        for (ActivityRetention retention : activityRetentionRepository.findAll()) {
+            try {
+                enforce(retention);
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Activity retention failed for tenant " + retention.getTenantUniqueName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public void enforce(ActivityRetention retention) {
+        String collectionName = retention.getTenantUniqueName() + CollectionType.ACTIVITY.getCollectionType();
+        if (!mongoTemplateService.collectionExists(collectionName)) {
+            activityRetentionRepository.delete(retention);
+            return;
+        }
+
+        LocalDateTime cutoff = null;
+        if (retention.getMaxAgeDays() != null && !retention.isTtlIndex()) {
+            cutoff = LocalDateTime.now().minusDays(retention.getMaxAgeDays());
+        }
+        if (retention.getMaxEvents() != null) {
+            Query boundaryQuery = new Query()
+                    .with(Sort.by(Sort.Order.desc(EVENT_TIME), Sort.Order.desc("_id")))
+                    .skip(retention.getMaxEvents())
+                    .limit(1);
+            boundaryQuery.fields().include(EVENT_TIME);
+            Event boundary = mongoTemplate.findOne(boundaryQuery, Event.class, collectionName);
+            if (boundary != null) {
+                LocalDateTime countCutoff = boundary.getEventTime().plus(1, ChronoUnit.MILLIS);
+                cutoff = cutoff == null || countCutoff.isAfter(cutoff) ? countCutoff : cutoff;
+            }
+        }
+        if (cutoff == null) {
+            return;
+        }
+
+        if (retention.isArchive()) {
+            archiveAndRemove(retention.getTenantUniqueName(), collectionName, cutoff);
+            return;
+        }
+        long removed = mongoTemplate.remove(new Query(Criteria.where(EVENT_TIME).lt(cutoff)), collectionName).getDeletedCount();
+        log.log(Level.INFO, "Removed {0} expired events for tenant: {1}", new Object[]{removed, retention.getTenantUniqueName()});
+    }
+
+    // Expired events are tagged with a run first, so the archive and the remove work on the same fixed set.
+    // Each month summary records the runs it counted, so a retried run is never counted twice.
+    private void archiveAndRemove(String tenantUniqueName, String collectionName, LocalDateTime cutoff) {
+        long now = System.currentTimeMillis();
+        String run = now + "-" + UUID.randomUUID();
+        mongoTemplate.updateMulti(new Query(Criteria.where(EVENT_TIME).lt(cutoff).and(ARCHIVE_RUN).exists(false)), Update.update(ARCHIVE_RUN, run), collectionName);
+
+        long removed = 0;
+        List<String> runs = mongoTemplate.findDistinct(new Query(Criteria.where(EVENT_TIME).lt(cutoff).and(ARCHIVE_RUN).exists(true)), ARCHIVE_RUN, collectionName, String.class);
+        for (String pending : runs) {
+            // A run of another instance is only finished here once it is old enough to have been abandoned.
+            if (!pending.equals(run) && runStartedAt(pending) > now - ABANDONED_RUN.toMillis()) {
+                continue;
+            }
+            archiveRun(tenantUniqueName, collectionName, pending);
+            removed += mongoTemplate.remove(new Query(Criteria.where(ARCHIVE_RUN).is(pending)), collectionName).getDeletedCount();
+        }
+        log.log(Level.INFO, "Archived and removed {0} expired events for tenant: {1}", new Object[]{removed, tenantUniqueName});
+    }
+
+    private void archiveRun(String tenantUniqueName, String collectionName, String run) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(ARCHIVE_RUN).is(run)),
+                Aggregation.project("eventState", EVENT_TIME).and(DateOperators.dateOf(EVENT_TIME).toString("%Y-%m")).as("month"),
+                Aggregation.group("month", "eventState").count().as("count").min(EVENT_TIME).as("firstEventTime").max(EVENT_TIME).as("lastEventTime")
+        );
+        Map<String, List<Document>> summariesByMonth = new TreeMap<>();
+        for (Document summary : mongoTemplate.aggregate(aggregation, collectionName, Document.class)) {
+            summariesByMonth.computeIfAbsent(summary.get("_id", Document.class).getString("month"), month -> new ArrayList<>()).add(summary);
+        }
+
+        String archiveCollection = tenantUniqueName + CollectionType.ACTIVITY_ARCHIVE.getCollectionType();
+        summariesByMonth.forEach((month, summaries) -> {
+            Update update = new Update().setOnInsert("month", month).addToSet(ARCHIVED_RUNS, run);
+            long total = 0;
+            Date firstEventTime = null;
+            Date lastEventTime = null;
+            for (Document summary : summaries) {
+                long count = ((Number) summary.get("count")).longValue();
+                total += count;
+                update.inc("byState." + summary.get("_id", Document.class).getString("eventState"), count);
+                Date first = summary.getDate("firstEventTime");
+                Date last = summary.getDate("lastEventTime");
+                firstEventTime = firstEventTime == null || first.before(firstEventTime) ? first : firstEventTime;
+                lastEventTime = lastEventTime == null || last.after(lastEventTime) ? last : lastEventTime;
+            }
+            update.inc("total", total).min("firstEventTime", firstEventTime).max("lastEventTime", lastEventTime);
+            try {
+                mongoTemplate.upsert(new Query(Criteria.where("_id").is(month).and(ARCHIVED_RUNS).ne(run)), update, archiveCollection);
+            } catch (DuplicateKeyException e) {
+                log.log(Level.INFO, "Run {0} was already archived for month {1} of tenant: {2}", new Object[]{run, month, tenantUniqueName});
+            }
+        });
+    }
+
+    private static long runStartedAt(String run) {
+        try {
+            return Long.parseLong(run.substring(0, run.indexOf('-')));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private void applyTtlIndex(ActivityRetention retention) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(retention.getTenantUniqueName() + CollectionType.ACTIVITY.getCollectionType());
+        Optional<IndexInfo> current = indexOperations.getIndexInfo().stream()
+                .filter(index -> TTL_INDEX_NAME.equals(index.getName()))
+                .findFirst();
+
+        if (retention.isTtlIndex()) {
+            Duration expireAfter = Duration.ofDays(retention.getMaxAgeDays());
+            if (current.isPresent() && current.get().getExpireAfter().map(expireAfter::equals).orElse(false)) {
+                return;
+            }
+            current.ifPresent(index -> indexOperations.dropIndex(TTL_INDEX_NAME));
+            indexOperations.ensureIndex(new Index().on(EVENT_TIME, Sort.Direction.ASC).expire(retention.getMaxAgeDays(), TimeUnit.DAYS).named(TTL_INDEX_NAME));
+        } else {
+            current.ifPresent(index -> indexOperations.dropIndex(TTL_INDEX_NAME));
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.scm.scm.events.services;
+
+import com.scm.scm.events.vao.Event;
+import com.mongodb.bulk.BulkWriteError;
+import com.scm.scm.support.mongoTemplate.CollectionType;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Service
+public class EventWriteBehind {
+
+    private static final Logger log = Logger.getLogger(EventWriteBehind.class.toString());
+
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long offerTimeoutMs;
+    private final int maxAttempts;
+    private final Map<String, TenantQueue> tenantQueues = new ConcurrentHashMap<>();
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public EventWriteBehind(MongoTemplate mongoTemplate,
+                            @Value("${scm.events.write-behind.enabled:false}") boolean enabled,
+                            @Value("${scm.events.write-behind.queue-capacity:10000}") int queueCapacity,
+                            @Value("${scm.events.write-behind.batch-size:500}") int batchSize,
+                            @Value("${scm.events.write-behind.offer-timeout-ms:500}") long offerTimeoutMs,
+                            @Value("${scm.events.write-behind.max-attempts:5}") int maxAttempts) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.offerTimeoutMs = Math.max(0, offerTimeoutMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    // Returns false when the event was not queued and the caller has to write it itself.
+    public boolean enqueue(String tenantUniqueName, Event event) {
+        if (!enabled) {
+            return false;
+        }
+        TenantQueue tenantQueue = tenantQueues.computeIfAbsent(tenantUniqueName, key -> new TenantQueue(queueCapacity));
+        try {
+            while (!tenantQueue.events.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                log.log(Level.WARNING, "Event queue full for tenant: {0}, flushing on caller thread", tenantUniqueName);
+                if (!flush(tenantUniqueName, tenantQueue)) {
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (tenantQueue.events.size() >= batchSize && tenantQueue.scheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(() -> {
+                    tenantQueue.scheduled.set(false);
+                    flush(tenantUniqueName);
+                });
+            } catch (RejectedExecutionException e) {
+                tenantQueue.scheduled.set(false);
+                flush(tenantUniqueName);
+            }
+        }
+        return true;
+    }
+
+    public void flush(String tenantUniqueName) {
+        TenantQueue tenantQueue = tenantQueues.get(tenantUniqueName);
+        if (tenantQueue != null) {
+            flush(tenantUniqueName, tenantQueue);
+        }
+    }
+
+    public void discard(String tenantUniqueName) {
+        TenantQueue tenantQueue = tenantQueues.remove(tenantUniqueName);
+        if (tenantQueue == null) {
+            return;
+        }
+        synchronized (tenantQueue) {
+            tenantQueue.discarded = true;
+            int dropped = tenantQueue.events.size();
+            tenantQueue.events.clear();
+            tenantQueue.attempts.clear();
+            log.log(Level.INFO, "Discarded {0} queued events for tenant: {1}", new Object[]{dropped, tenantUniqueName});
+        }
+    }
+
+    // Events that failed to write go back to the head of the queue, until they run out of attempts.
+    private boolean flush(String tenantUniqueName, TenantQueue tenantQueue) {
+        synchronized (tenantQueue) {
+            if (tenantQueue.discarded) {
+                return true;
+            }
+            List<Event> batch = new ArrayList<>(Math.min(batchSize, tenantQueue.events.size()));
+            while (tenantQueue.events.drainTo(batch, batchSize) > 0) {
+                List<Event> failed = write(tenantUniqueName, batch);
+                if (!tenantQueue.attempts.isEmpty()) {
+                    Set<Event> unwritten = Collections.newSetFromMap(new IdentityHashMap<>());
+                    unwritten.addAll(failed);
+                    batch.stream().filter(event -> !unwritten.contains(event)).forEach(tenantQueue.attempts::remove);
+                }
+                if (!failed.isEmpty()) {
+                    requeue(tenantUniqueName, tenantQueue, failed);
+                    return false;
+                }
+                batch.clear();
+            }
+            return true;
+        }
+    }
+
+    // Unordered, so one bad event doesn't hold back the rest; a duplicate key means an earlier attempt already wrote it.
+    private List<Event> write(String tenantUniqueName, List<Event> batch) {
+        try {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+            bulkOperations.insert(batch);
+            bulkOperations.execute();
+            log.log(Level.FINE, "Flushed {0} events for tenant: {1}", new Object[]{batch.size(), tenantUniqueName});
+            return List.of();
+        } catch (BulkOperationException e) {
+            List<Event> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY_ERROR) {
+                    failed.add(batch.get(error.getIndex()));
+                }
+            }
+            if (!failed.isEmpty()) {
+                log.log(Level.SEVERE, "Failed to write " + failed.size() + " of " + batch.size() + " events for tenant: " + tenantUniqueName, e);
+            }
+            return failed;
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Failed to write " + batch.size() + " events for tenant: " + tenantUniqueName, e);
+            return new ArrayList<>(batch);
+        }
+    }
+
+    private void requeue(String tenantUniqueName, TenantQueue tenantQueue, List<Event> failed) {
+        int dropped = 0;
+        for (int i = failed.size() - 1; i >= 0; i--) {
+            Event event = failed.get(i);
+            if (tenantQueue.attempts.merge(event, 1, Integer::sum) >= maxAttempts || !tenantQueue.events.offerFirst(event)) {
+                tenantQueue.attempts.remove(event);
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            log.log(Level.SEVERE, "Dropped {0} events for tenant: {1} after failed writes", new Object[]{dropped, tenantUniqueName});
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scm.events.write-behind.flush-interval-ms:1000}")
+    public void flushAll() {
+        tenantQueues.keySet().forEach(this::flush);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+        log.info("Event write-behind flushed on shutdown");
+    }
+
+    private static class TenantQueue {
+        private final BlockingDeque<Event> events;
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private final Map<Event, Integer> attempts = new IdentityHashMap<>();
+        private boolean discarded;
+
+        TenantQueue(int capacity) {
+            this.events = new LinkedBlockingDeque<>(capacity);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.scm.scm.events.services;
 
 
+import com.scm.scm.events.dto.EventFilter;
 import com.scm.scm.events.vao.Event;
 import com.scm.scm.events.vao.EventState;
 import com.scm.scm.support.exceptions.CustomHttpException;
@@ -8,31 +9,79 @@ import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
 import com.scm.scm.support.mongoTemplate.CollectionType;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.pagination.CursorPage;
+import com.scm.scm.support.pagination.PageCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 @Service
 public class EventsServices {
 
     private final MongoTemplate mongoTemplate;
     private final MongoTemplateService mongoTemplateService;
+    private final EventWriteBehind eventWriteBehind;
 
     private static final Logger log = Logger.getLogger(EventsServices.class.toString());
 
     @Autowired
-    public EventsServices(MongoTemplate mongoTemplate, MongoTemplateService mongoTemplateService) {
+    public EventsServices(MongoTemplate mongoTemplate, MongoTemplateService mongoTemplateService, EventWriteBehind eventWriteBehind) {
         this.mongoTemplate = mongoTemplate;
         this.mongoTemplateService = mongoTemplateService;
+        this.eventWriteBehind = eventWriteBehind;
     }
 
     public void addEvent (Event event, String tenantUniqueName){
+        prepareEvent(event);
+        log.info("Event created with id: " + event.getId());
+
+        if (mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType())) {
+            if (eventWriteBehind.enqueue(tenantUniqueName, event)) {
+                return;
+            }
+            mongoTemplate.save(event, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+            log.info("Event " + event.getId() + " saved in collection " + tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+        }
+        else {
+            log.severe(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage());
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+    }
+
+    public void addEvents(List<Event> events, String tenantUniqueName) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType())) {
+            log.severe(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage());
+            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
+        }
+        events.forEach(this::prepareEvent);
+        List<Event> unqueued = new ArrayList<>();
+        for (Event event : events) {
+            if (!eventWriteBehind.enqueue(tenantUniqueName, event)) {
+                unqueued.add(event);
+            }
+        }
+        if (unqueued.isEmpty()) {
+            return;
+        }
+        mongoTemplate.insert(unqueued, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+        log.log(Level.INFO, "{0} events saved in collection {1}", new Object[]{unqueued.size(), tenantUniqueName + CollectionType.ACTIVITY.getCollectionType()});
+    }
+
+    private void prepareEvent(Event event) {
         event.setId(event.generateId());
         event.setEventTime(LocalDateTime.now());
         if (Objects.equals(event.getUser(), "")) {
@@ -47,16 +96,6 @@ public class EventsServices {
             log.severe(ExceptionMessage.EVENT_STATE_NOT_VALID.getExceptionMessage());
             throw new CustomHttpException(ExceptionMessage.EVENT_STATE_NOT_VALID.getExceptionMessage(), 400, ExceptionCause.USER_ERROR);
         }
-        log.info("Event created with id: " + event.getId());
-
-        if (mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType())) {
-            mongoTemplate.save(event, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
-            log.info("Event " + event.getId() + " saved in collection " + tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
-        }
-        else {
-            log.severe(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage());
-            throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
-        }
     }
 
     public boolean checkEnum(EventState eventState) {
@@ -74,10 +113,16 @@ public class EventsServices {
     public List<Event> getAllEventsForContact(String contactId, String tenantUniqueName) {
         checkCollection(tenantUniqueName);
         log.log(Level.INFO, "Getting all events for contact: {0} ", contactId);
-        return mongoTemplate.findAll(Event.class, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType())
-                .stream()
-                .filter(event -> event.getContact().equals(contactId))
-                .toList();
+        Query query = new Query(Criteria.where("contact").is(contactId))
+                .with(Sort.by(Sort.Order.asc("eventTime"), Sort.Order.asc("_id")));
+        return mongoTemplate.find(query, Event.class, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+    }
+
+    public CursorPage<Event> getEventsForContactPage(String contactId, String tenantUniqueName, LocalDateTime from, LocalDateTime to, String cursor, Integer limit) {
+        checkCollection(tenantUniqueName);
+        log.log(Level.INFO, "Getting page of events for contact: {0} ", contactId);
+        EventFilter filter = EventFilter.builder().contact(contactId).from(from).to(to).build();
+        return findEventsPage(toCriteria(filter), cursor, limit, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
     }
 
     public List<Event> getAllEventsForTenant(String tenantUniqueName) {
@@ -86,6 +131,75 @@ public class EventsServices {
         return mongoTemplate.findAll(Event.class, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
     }
 
+    public CursorPage<Event> getEventsForTenantPage(String tenantUniqueName, EventFilter filter, String cursor, Integer limit) {
+        checkCollection(tenantUniqueName);
+        log.log(Level.INFO, "Getting page of events for tenant: {0}", tenantUniqueName);
+        return findEventsPage(toCriteria(filter), cursor, limit, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+    }
+
+    public Stream<Event> streamEventsForTenant(String tenantUniqueName, EventFilter filter) {
+        checkCollection(tenantUniqueName);
+        log.log(Level.INFO, "Streaming events for tenant: {0}", tenantUniqueName);
+        Query query = toQuery(toCriteria(filter))
+                .with(Sort.by(Sort.Order.asc("eventTime"), Sort.Order.asc("_id")));
+        return mongoTemplate.stream(query, Event.class, tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+    }
+
+    private List<Criteria> toCriteria(EventFilter filter) {
+        List<Criteria> criteria = new ArrayList<>();
+        if (filter == null) {
+            return criteria;
+        }
+        if (filter.getContact() != null && !filter.getContact().isEmpty()) {
+            criteria.add(Criteria.where("contact").is(filter.getContact()));
+        }
+        if (filter.getUser() != null && !filter.getUser().isEmpty()) {
+            criteria.add(Criteria.where("user").is(filter.getUser()));
+        }
+        if (filter.getStates() != null && !filter.getStates().isEmpty()) {
+            criteria.add(Criteria.where("eventState").in(filter.getStates()));
+        }
+        if (filter.getFrom() != null) {
+            criteria.add(Criteria.where("eventTime").gte(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            criteria.add(Criteria.where("eventTime").lt(filter.getTo()));
+        }
+        return criteria;
+    }
+
+    private Query toQuery(List<Criteria> criteria) {
+        return criteria.isEmpty() ? new Query() : new Query(new Criteria().andOperator(criteria));
+    }
+
+    private CursorPage<Event> findEventsPage(List<Criteria> criteria, String cursor, Integer limit, String collectionName) {
+        int pageSize = CursorPage.resolvePageSize(limit);
+        if (cursor != null && !cursor.isEmpty()) {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("eventTime").lt(pageCursor.getTime()),
+                    Criteria.where("eventTime").is(pageCursor.getTime()).and("_id").lt(pageCursor.getId())
+            ));
+        }
+        Query query = toQuery(criteria)
+                .with(Sort.by(Sort.Order.desc("eventTime"), Sort.Order.desc("_id")))
+                .limit(pageSize + 1);
+
+        List<Event> events = mongoTemplate.find(query, Event.class, collectionName);
+        boolean hasMore = events.size() > pageSize;
+        String nextCursor = null;
+        if (hasMore) {
+            events = events.subList(0, pageSize);
+            Event last = events.getLast();
+            nextCursor = new PageCursor(last.getEventTime(), last.getId()).encode();
+        }
+        return CursorPage.<Event>builder()
+                .items(events)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     private void checkCollection(String tenantUniqueName) {
         if (tenantUniqueName == null || tenantUniqueName.isEmpty()) {
             log.severe("Tenant unique name is empty");
@@ -95,5 +209,6 @@ public class EventsServices {
             log.severe(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage());
             throw new CustomHttpException(ExceptionMessage.COLLECTION_NOT_EXIST.getExceptionMessage(), 500, ExceptionCause.SERVER_ERROR);
         }
+        eventWriteBehind.flush(tenantUniqueName);
     }
 }
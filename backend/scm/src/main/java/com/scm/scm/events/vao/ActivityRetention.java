@@ -0,0 +1,22 @@
+package com.scm.scm.events.vao;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "activity-retention")
+public class ActivityRetention {
+    @Id
+    private String tenantUniqueName;
+    private Integer maxAgeDays;
+    private Integer maxEvents;
+    private boolean ttlIndex;
+    private boolean archive;
+}
@@ -0,0 +1,12 @@
+package com.scm.scm.imports.dao;
+
+import com.scm.scm.imports.vao.ImportJob;
+import com.scm.scm.imports.vao.ImportJobStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImportJobRepository extends MongoRepository<ImportJob, String> {
+    List<ImportJob> findByStatusInOrderByCreatedAtAsc(Collection<ImportJobStatus> statuses);
+}
@@ -0,0 +1,41 @@
+package com.scm.scm.imports.rest;
+
+import com.google.firebase.auth.FirebaseToken;
+import com.scm.scm.imports.services.ImportJobServices;
+import com.scm.scm.imports.vao.ImportJob;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import com.scm.scm.support.exceptions.ExceptionMessage;
+import com.scm.scm.support.security.UserAccessService;
+import com.scm.scm.support.security.UserVerifyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/imports")
+public class ImportJobController {
+
+    private final ImportJobServices importJobServices;
+    private final UserAccessService userAccessService;
+    private final UserVerifyService userVerifyService;
+
+    @Autowired
+    public ImportJobController(ImportJobServices importJobServices, UserAccessService userAccessService, UserVerifyService userVerifyService) {
+        this.importJobServices = importJobServices;
+        this.userAccessService = userAccessService;
+        this.userVerifyService = userVerifyService;
+    }
+
+    @GetMapping(value = "/{job_id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportJob> getImportJob(@PathVariable("job_id") String jobId, @RequestHeader("userToken") String userToken) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        ImportJob job = importJobServices.getJob(jobId);
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), job.getTenantUniqueName())) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(job);
+    }
+}
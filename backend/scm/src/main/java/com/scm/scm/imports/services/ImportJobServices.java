@@ -0,0 +1,292 @@
+package com.scm.scm.imports.services;
+
+import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.imports.dao.ImportJobRepository;
+import com.scm.scm.imports.vao.ImportFormat;
+import com.scm.scm.imports.vao.ImportJob;
+import com.scm.scm.imports.vao.ImportJobStatus;
+import com.scm.scm.support.ImportContactExcel;
+import com.scm.scm.support.ImportContactJson;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Service
+public class ImportJobServices {
+
+    private static final Logger log = Logger.getLogger(ImportJobServices.class.toString());
+
+    private static final List<ImportJobStatus> UNFINISHED = List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING);
+
+    private final ImportJobRepository importJobRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ContactServices contactServices;
+    private final ImportContactExcel importContactExcel;
+    private final ImportContactJson importContactJson;
+    private final Path storageDir;
+    private final String instanceId;
+    private final Duration lease;
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor workers;
+
+    @Autowired
+    public ImportJobServices(ImportJobRepository importJobRepository, MongoTemplate mongoTemplate, ContactServices contactServices, ImportContactExcel importContactExcel, ImportContactJson importContactJson,
+                             @Value("${scm.import.jobs.dir:}") String storageDir,
+                             @Value("${scm.import.jobs.instance-id:}") String instanceId,
+                             @Value("${scm.import.jobs.lease-ms:120000}") long leaseMs,
+                             @Value("${scm.import.jobs.workers:2}") int workers,
+                             @Value("${scm.import.jobs.queue-capacity:100}") int queueCapacity) {
+        this.importJobRepository = importJobRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.contactServices = contactServices;
+        this.importContactExcel = importContactExcel;
+        this.importContactJson = importContactJson;
+        this.storageDir = storageDir == null || storageDir.isBlank() ? null : Path.of(storageDir);
+        if (this.storageDir == null) {
+            log.warning("scm.import.jobs.dir is not set, background imports are disabled");
+        }
+        this.instanceId = instanceId == null || instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.lease = Duration.ofMillis(Math.max(1000, leaseMs));
+        int poolSize = Math.max(1, workers);
+        this.workers = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+            Thread thread = new Thread(runnable, "contact-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ImportJob submit(MultipartFile file, ImportFormat format, String user, String tenantUniqueName) {
+        if (storageDir == null) {
+            throw new CustomHttpException("Background imports are not configured", 503, ExceptionCause.SERVER_ERROR);
+        }
+        String jobId = UUID.randomUUID().toString();
+        Path storedFile = storageDir.resolve(jobId);
+        try (InputStream inputStream = file.getInputStream()) {
+            Files.createDirectories(storageDir);
+            Files.copy(inputStream, storedFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "Failed to store import file " + file.getOriginalFilename(), e);
+            throw new CustomHttpException("Failed to store import file", 500, ExceptionCause.SERVER_ERROR);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ImportJob job = ImportJob.builder()
+                .id(jobId)
+                .tenantUniqueName(tenantUniqueName)
+                .user(user)
+                .format(format)
+                .fileName(file.getOriginalFilename())
+                .storedFile(storedFile.toString())
+                .status(ImportJobStatus.QUEUED)
+                .owner(instanceId)
+                .leaseExpiresAt(now.plus(lease))
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        localJobs.add(jobId);
+        importJobRepository.save(job);
+
+        if (!schedule(job)) {
+            finish(job, ImportJobStatus.FAILED, "Import queue is full");
+            throw new CustomHttpException("Import queue is full, try again later", 503, ExceptionCause.SERVER_ERROR);
+        }
+        log.log(Level.INFO, "Import job {0} queued for tenant: {1}", new Object[]{jobId, tenantUniqueName});
+        return job;
+    }
+
+    public ImportJob getJob(String jobId) {
+        return importJobRepository.findById(jobId)
+                .orElseThrow(() -> new CustomHttpException("Import job not found", 404, ExceptionCause.USER_ERROR));
+    }
+
+    // Another instance's job is only taken over once that instance has stopped renewing its lease.
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        if (storageDir == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (ImportJob unfinished : importJobRepository.findByStatusInOrderByCreatedAtAsc(UNFINISHED)) {
+            boolean leasedElsewhere = !instanceId.equals(unfinished.getOwner()) && unfinished.getLeaseExpiresAt() != null && unfinished.getLeaseExpiresAt().isAfter(now);
+            if (localJobs.contains(unfinished.getId()) || leasedElsewhere) {
+                continue;
+            }
+            ImportJob job = claim(unfinished, now);
+            if (job == null) {
+                continue;
+            }
+            if (job.getStoredFile() == null || !Files.exists(Path.of(job.getStoredFile()))) {
+                finish(job, ImportJobStatus.FAILED, "Import file is no longer available");
+                continue;
+            }
+            if (!schedule(job)) {
+                log.log(Level.WARNING, "Import queue full, job {0} stays queued until its lease expires", job.getId());
+                continue;
+            }
+            log.log(Level.INFO, "Resuming import job {0} after row {1}", new Object[]{job.getId(), job.getRowsParsed()});
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${scm.import.jobs.heartbeat-ms:30000}", initialDelayString = "${scm.import.jobs.heartbeat-ms:30000}")
+    public void heartbeat() {
+        for (String jobId : localJobs) {
+            Query query = new Query(Criteria.where("_id").is(jobId).and("owner").is(instanceId));
+            mongoTemplate.updateFirst(query, new Update().set("leaseExpiresAt", LocalDateTime.now().plus(lease)), ImportJob.class);
+        }
+        resumeUnfinishedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warning("Import workers did not stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ImportJob claim(ImportJob job, LocalDateTime now) {
+        Query query = new Query(Criteria.where("_id").is(job.getId()).and("status").in(UNFINISHED)
+                .orOperator(Criteria.where("owner").is(instanceId), Criteria.where("leaseExpiresAt").is(null), Criteria.where("leaseExpiresAt").lt(now)));
+        Update update = new Update().set("owner", instanceId).set("leaseExpiresAt", now.plus(lease));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), ImportJob.class);
+    }
+
+    private boolean schedule(ImportJob job) {
+        localJobs.add(job.getId());
+        try {
+            workers.execute(() -> {
+                try {
+                    run(job);
+                } finally {
+                    localJobs.remove(job.getId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            localJobs.remove(job.getId());
+            return false;
+        }
+    }
+
+    private void run(ImportJob job) {
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setLeaseExpiresAt(LocalDateTime.now().plus(lease));
+        job.setUpdatedAt(LocalDateTime.now());
+        importJobRepository.save(job);
+
+        Path file = Path.of(job.getStoredFile());
+        ChunkSink sink = new ChunkSink(job);
+        try {
+            switch (job.getFormat()) {
+                case EXCEL -> importContactExcel.importContactsFromExcel(file, job.getUser(), job.getTenantUniqueName(), sink);
+                case JSON -> {
+                    try (InputStream inputStream = Files.newInputStream(file)) {
+                        importContactJson.importContactsFromJson(inputStream, job.getUser(), job.getTenantUniqueName(), sink);
+                    }
+                }
+                case JSON_REGISTRATION -> {
+                    try (InputStream inputStream = Files.newInputStream(file)) {
+                        importContactJson.importRegistrationContactsFromJson(inputStream, job.getUser(), job.getTenantUniqueName(), sink);
+                    }
+                }
+            }
+            finish(job, ImportJobStatus.COMPLETED, null);
+            log.log(Level.INFO, "Import job {0} completed: {1} inserted, {2} failed", new Object[]{job.getId(), job.getRowsInserted(), job.getRowsFailed()});
+        } catch (Exception e) {
+            if (workers.isShutdown()) {
+                job.setLeaseExpiresAt(null);
+                importJobRepository.save(job);
+                log.log(Level.INFO, "Import job {0} stopped after row {1}, its lease was released", new Object[]{job.getId(), job.getRowsParsed()});
+                return;
+            }
+            log.log(Level.SEVERE, "Import job " + job.getId() + " failed", e);
+            finish(job, ImportJobStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void finish(ImportJob job, ImportJobStatus status, String error) {
+        try {
+            if (job.getStoredFile() != null) {
+                Files.deleteIfExists(Path.of(job.getStoredFile()));
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Failed to delete import file for job {0}", job.getId());
+        }
+        job.setStatus(status);
+        job.setError(error);
+        job.setLeaseExpiresAt(null);
+        job.setUpdatedAt(LocalDateTime.now());
+        importJobRepository.save(job);
+    }
+
+    private class ChunkSink implements Consumer<List<ContactDTO>> {
+
+        private final ImportJob job;
+        private long rowsToSkip;
+
+        ChunkSink(ImportJob job) {
+            this.job = job;
+            this.rowsToSkip = job.getRowsParsed();
+        }
+
+        @Override
+        public void accept(List<ContactDTO> batch) {
+            if (workers.isShutdown()) {
+                throw new CancellationException("Import workers are shutting down");
+            }
+            int skipped = (int) Math.min(rowsToSkip, batch.size());
+            rowsToSkip -= skipped;
+            List<ContactDTO> chunk = batch.subList(skipped, batch.size());
+            if (chunk.isEmpty()) {
+                return;
+            }
+
+            try {
+                contactServices.saveAllContacts(chunk);
+                job.setRowsInserted(job.getRowsInserted() + chunk.size());
+            } catch (CustomHttpException e) {
+                if (e.getExceptionCause() != ExceptionCause.USER_ERROR) {
+                    throw e;
+                }
+                log.log(Level.WARNING, "Import job {0} rejected a chunk of {1} rows: {2}", new Object[]{job.getId(), chunk.size(), e.getMessage()});
+                job.setRowsFailed(job.getRowsFailed() + chunk.size());
+            }
+            job.setRowsParsed(job.getRowsParsed() + chunk.size());
+            job.setLeaseExpiresAt(LocalDateTime.now().plus(lease));
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.scm.scm.imports.vao;
+
+public enum ImportFormat {
+    EXCEL,
+    JSON,
+    JSON_REGISTRATION
+}
@@ -0,0 +1,38 @@
+package com.scm.scm.imports.vao;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "import-jobs")
+public class ImportJob {
+    @Id
+    private String id;
+    private String tenantUniqueName;
+    private String user;
+    private ImportFormat format;
+    private String fileName;
+    @JsonIgnore
+    private String storedFile;
+    private ImportJobStatus status;
+    @JsonIgnore
+    private String owner;
+    @JsonIgnore
+    private LocalDateTime leaseExpiresAt;
+    private long rowsParsed;
+    private long rowsInserted;
+    private long rowsFailed;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.scm.scm.imports.vao;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -2,15 +2,33 @@ package com.scm.scm.support;
 
 import com.scm.scm.contact.dto.ContactDTO;
 import com.scm.scm.contact.services.ContactServices;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @Service
@@ -19,6 +37,8 @@ public class ImportContactExcel {
     private static final Logger log = Logger.getLogger(ImportContactExcel.class.toString());
 
     private final ContactServices contactServices;
+    private final ParallelContactMapper parallelContactMapper;
+    private final int importBatchSize;
 
     private static final Map<String, String> COLUMN_NAME_MAPPING = Map.ofEntries(
             Map.entry("predpona", "prefix"),
@@ -34,140 +54,222 @@ public class ImportContactExcel {
             Map.entry("telefonska", "phoneNumber")
     );
 
+    private static final List<String> PREDEFINED_PROPS = Arrays.asList("prefix", "company", "email", "phoneNumber", "houseNumber", "address", "postNumber", "city", "country", "comment");
+
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+
     @Autowired
-    public ImportContactExcel(ContactServices contactServices) {
+    public ImportContactExcel(ContactServices contactServices, ParallelContactMapper parallelContactMapper, @Value("${scm.import.batch-size:1000}") int importBatchSize) {
         this.contactServices = contactServices;
+        this.parallelContactMapper = parallelContactMapper;
+        this.importBatchSize = importBatchSize;
     }
 
     public void importContactsFromExcel(MultipartFile file, String userToken, String tenantUniqueName) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            List<ContactDTO> contacts = new ArrayList<>();
-
-            Row headerRow = sheet.getRow(0);
-            Map<Integer, String> headerMap = new HashMap<>();
-            for (Cell cell : headerRow) {
-                String columnName = getMappedColumnName(cell.getStringCellValue());
-                headerMap.put(cell.getColumnIndex(), columnName);
+        Path tempFile = Files.createTempFile("scm-import-", ".xlsx");
+        try {
+            try (InputStream inputStream = file.getInputStream()) {
+                Files.copy(inputStream, tempFile, StandardCopyOption.REPLACE_EXISTING);
             }
+            importContactsFromExcel(tempFile, userToken, tenantUniqueName, contactServices::saveAllContacts);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
 
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0) {
-                    continue;
+    public void importContactsFromExcel(Path file, String userToken, String tenantUniqueName, Consumer<List<ContactDTO>> sink) throws IOException {
+        try {
+            try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                StylesTable styles = reader.getStylesTable();
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    throw new IOException("Workbook has no sheets");
                 }
 
-                ContactDTO contact = new ContactDTO();
-                contact.setId(UUID.randomUUID().toString());
-
-                String name = "";
-                String lastname = "";
-                String title = "";
-
-                try {
-                    name = getCellValueAsString(row.getCell(getColumnIndex(headerMap, "name", false)));
-                } catch (Exception ignored) {}
-
-                try {
-                    lastname = getCellValueAsString(row.getCell(getColumnIndex(headerMap, "lastname", false)));
-                } catch (Exception ignored) {}
-
-                try {
-                    title = getCellValueAsString(row.getCell(getColumnIndex(headerMap, "title", false)));
-                } catch (Exception ignored) {}
-
-                if (!title.isEmpty()) {
-                    contact.setTitle(title);
-                } else if (!name.isEmpty() && !lastname.isEmpty()) {
-                    contact.setTitle(name + " " + lastname);
-                } else if (!name.isEmpty()) {
-                    contact.setTitle(name);
-                } else if (!lastname.isEmpty()) {
-                    contact.setTitle(lastname);
-                } else {
-                    contact.setTitle("Contact");
+                try (ContactRowHandler rowHandler = new ContactRowHandler(userToken, tenantUniqueName, sink);
+                     InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, rowHandler, new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                    log.log(Level.INFO, "Imported {0} rows from Excel for tenant: {1}", new Object[]{rowHandler.finish(), tenantUniqueName});
                 }
+            }
+        } catch (Exception e) {
+            log.severe("Napaka pri uvozu: " + e.getMessage());
+            throw new IOException("Napaka pri uvozu", e);
+        }
+    }
 
-                contact.setUser(userToken);
-                contact.setTenantUniqueName(tenantUniqueName);
-
-                Map<String, String> props = new HashMap<>();
-                List<String> tags = new ArrayList<>();
-                List<String> predefinedProps = Arrays.asList("prefix", "company", "email", "phoneNumber", "houseNumber", "address", "postNumber", "city", "country", "comment");
+    private ContactDTO createContactFromRow(ColumnLayout layout, Map<Integer, String> row, String userToken, String tenantUniqueName) {
+        ContactDTO contact = new ContactDTO();
+        contact.setId(UUID.randomUUID().toString());
 
-                for (String prop : predefinedProps) {
-                    try {
-                        String value = getCellValueAsString(row.getCell(getColumnIndex(headerMap, prop, true)));
-                        if (value != null && !value.isEmpty()) {
-                            props.put(prop, value);
-                        }
-                    } catch (Exception ignored) {}
-                }
+        String name = getCellValue(row, layout.nameColumn);
+        String lastname = getCellValue(row, layout.lastnameColumn);
+        String title = getCellValue(row, layout.titleColumn);
 
-                contact.setCreatedAt(LocalDateTime.now().toString());
+        if (!title.isEmpty()) {
+            contact.setTitle(title);
+        } else if (!name.isEmpty() && !lastname.isEmpty()) {
+            contact.setTitle(name + " " + lastname);
+        } else if (!name.isEmpty()) {
+            contact.setTitle(name);
+        } else if (!lastname.isEmpty()) {
+            contact.setTitle(lastname);
+        } else {
+            contact.setTitle("Contact");
+        }
 
-                for (Map.Entry<Integer, String> entry : headerMap.entrySet()) {
-                    String columnName = entry.getValue();
-                    if (columnName.equals("name") || columnName.equals("lastname") || predefinedProps.contains(columnName)) {
-                        continue;
-                    }
+        contact.setUser(userToken);
+        contact.setTenantUniqueName(tenantUniqueName);
 
-                    String value = getCellValueAsString(row.getCell(entry.getKey()));
-                    if (Objects.equals(value, "")) {
-                        continue;
-                    }
+        Map<String, String> props = new HashMap<>();
+        List<String> tags = new ArrayList<>();
 
-                    if (columnName.equalsIgnoreCase(value)) {
-                        tags.add(columnName);
-                    } else {
-                        props.put(columnName, value);
-                    }
-                }
+        for (int i = 0; i < PREDEFINED_PROPS.size(); i++) {
+            String value = getCellValue(row, layout.predefinedColumns[i]);
+            if (!value.isEmpty()) {
+                props.put(PREDEFINED_PROPS.get(i), value);
+            }
+        }
 
-                contact.setTags(tags);
-                contact.setProps(props);
-                contact.setAttributesToString(contact.contactAttributesToString());
+        contact.setCreatedAt(LocalDateTime.now().toString());
 
-                contacts.add(contact);
+        for (int i = 0; i < layout.otherColumns.length; i++) {
+            String columnName = layout.otherNames[i];
+            String value = getCellValue(row, layout.otherColumns[i]);
+            if (value.isEmpty()) {
+                continue;
             }
 
-            contactServices.saveAllContacts(contacts);
-        } catch (Exception e) {
-            log.severe("Napaka pri uvozu: " + e.getMessage());
-            throw new IOException("Napaka pri uvozu", e);
+            if (columnName.equalsIgnoreCase(value)) {
+                tags.add(columnName);
+            } else {
+                props.put(columnName, value);
+            }
         }
+
+        contact.setTags(tags);
+        contact.setProps(props);
+        contact.setAttributesToString(contact.contactAttributesToString());
+        return contact;
     }
 
-    private Integer getColumnIndex(Map<Integer, String> headerMap, String columnName, boolean returnNullIfNotFound) {
-        return headerMap.entrySet().stream()
-                .filter(entry -> entry.getValue().equalsIgnoreCase(columnName))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+    private String getCellValue(Map<Integer, String> row, int columnIndex) {
+        if (columnIndex < 0) {
+            return "";
+        }
+        String value = row.get(columnIndex);
+        return value == null ? "" : value;
     }
 
-    private String getMappedColumnName(String originalColumnName) {
-        return COLUMN_NAME_MAPPING.getOrDefault(originalColumnName.toLowerCase(), originalColumnName);
+    // Column positions resolved once from the header row.
+    private static final class ColumnLayout {
+
+        private final int nameColumn;
+        private final int lastnameColumn;
+        private final int titleColumn;
+        private final int[] predefinedColumns;
+        private final int[] otherColumns;
+        private final String[] otherNames;
+
+        ColumnLayout(Map<Integer, String> headerMap) {
+            Map<String, Integer> firstColumn = new HashMap<>();
+            List<Integer> others = new ArrayList<>();
+            for (Map.Entry<Integer, String> entry : new TreeMap<>(headerMap).entrySet()) {
+                String columnName = entry.getValue();
+                firstColumn.putIfAbsent(columnName.toLowerCase(), entry.getKey());
+                if (!columnName.equals("name") && !columnName.equals("lastname") && !PREDEFINED_PROPS.contains(columnName)) {
+                    others.add(entry.getKey());
+                }
+            }
+
+            nameColumn = firstColumn.getOrDefault("name", -1);
+            lastnameColumn = firstColumn.getOrDefault("lastname", -1);
+            titleColumn = firstColumn.getOrDefault("title", -1);
+            predefinedColumns = new int[PREDEFINED_PROPS.size()];
+            for (int i = 0; i < predefinedColumns.length; i++) {
+                predefinedColumns[i] = firstColumn.getOrDefault(PREDEFINED_PROPS.get(i).toLowerCase(), -1);
+            }
+            otherColumns = others.stream().mapToInt(Integer::intValue).toArray();
+            otherNames = others.stream().map(headerMap::get).toArray(String[]::new);
+        }
     }
 
-    private String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
+    private class ContactRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler, AutoCloseable {
+
+        private final String userToken;
+        private final String tenantUniqueName;
+        private final ParallelContactMapper.OrderedBatchWriter<Map<Integer, String>> writer;
+        private final Map<Integer, String> headerMap = new HashMap<>();
+        private Map<Integer, String> currentRow = new HashMap<>();
+        private List<Map<Integer, String>> batch = new ArrayList<>();
+        private ColumnLayout layout;
+        private int currentColumn;
+
+        ContactRowHandler(String userToken, String tenantUniqueName, Consumer<List<ContactDTO>> sink) {
+            this.userToken = userToken;
+            this.tenantUniqueName = tenantUniqueName;
+            this.writer = parallelContactMapper.writer(row -> List.of(createContactFromRow(layout, row, userToken, tenantUniqueName)), sink);
         }
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    return String.valueOf(cell.getNumericCellValue());
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return cell.getCellFormula();
-            default:
-                return "";
+
+        @Override
+        public void startRow(int rowNum) {
+            currentColumn = -1;
+            currentRow = new HashMap<>();
         }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0) {
+                currentRow.forEach((index, value) -> headerMap.put(index, getMappedColumnName(value)));
+                layout = new ColumnLayout(headerMap);
+                return;
+            }
+            if (layout == null) {
+                layout = new ColumnLayout(headerMap);
+            }
+            batch.add(currentRow);
+            if (batch.size() >= resolveBatchSize()) {
+                submitBatch();
+            }
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            currentColumn = cellReference == null ? currentColumn + 1 : new CellReference(cellReference).getCol();
+            if (formattedValue != null) {
+                currentRow.put(currentColumn, formattedValue);
+            }
+        }
+
+        void submitBatch() {
+            try {
+                writer.submit(batch);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            batch = new ArrayList<>();
+        }
+
+        int finish() throws IOException {
+            writer.submit(batch);
+            return writer.finish();
+        }
+
+        @Override
+        public void close() {
+            writer.close();
+        }
+    }
+
+    private int resolveBatchSize() {
+        return importBatchSize <= 0 ? DEFAULT_IMPORT_BATCH_SIZE : importBatchSize;
+    }
+
+    private String getMappedColumnName(String originalColumnName) {
+        return COLUMN_NAME_MAPPING.getOrDefault(originalColumnName.toLowerCase(), originalColumnName);
     }
-}
\ No newline at end of file
+}
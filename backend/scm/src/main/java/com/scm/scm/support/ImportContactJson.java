@@ -1,21 +1,38 @@
 package com.scm.scm.support;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.scm.scm.contact.dto.ContactDTO;
 import com.scm.scm.contact.services.ContactServices;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Service
 public class ImportContactJson {
 
+    private static final Logger log = Logger.getLogger(ImportContactJson.class.toString());
+
     private final ContactServices contactServices;
+    private final ObjectMapper objectMapper;
+    private final ParallelContactMapper parallelContactMapper;
+    private final int importBatchSize;
+
+    private static final int DEFAULT_IMPORT_BATCH_SIZE = 1000;
+    private static final Set<String> PARTICIPANT_TYPES = Set.of("regular", "group");
+    private static final Set<String> SHARED_REGISTRATION_FIELDS = Set.of("type", "companyName", "companyLabel", "companyAddress", "companyZip", "companyCity", "vatId", "contact");
 
     private static final Map<String, String> SLO_ENG_MAPPING = Map.ofEntries(
             Map.entry("predpona", "prefix"),
@@ -30,33 +47,69 @@ public class ImportContactJson {
     );
 
     @Autowired
-    public ImportContactJson(ContactServices contactServices) {
+    public ImportContactJson(ContactServices contactServices, ObjectMapper objectMapper, ParallelContactMapper parallelContactMapper, @Value("${scm.import.batch-size:1000}") int importBatchSize) {
         this.contactServices = contactServices;
+        this.objectMapper = objectMapper;
+        this.parallelContactMapper = parallelContactMapper;
+        this.importBatchSize = importBatchSize <= 0 ? DEFAULT_IMPORT_BATCH_SIZE : importBatchSize;
     }
 
     public void importContactsFromJson(MultipartFile file, String userToken, String tenantUniqueName) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<ContactDTO> contacts = new ArrayList<>();
+        try (InputStream inputStream = file.getInputStream()) {
+            importContactsFromJson(inputStream, userToken, tenantUniqueName, contactServices::saveAllContacts);
+        }
+    }
 
+    public void importContactsFromJson(InputStream inputStream, String userToken, String tenantUniqueName, Consumer<List<ContactDTO>> sink) throws IOException {
         try {
-            JsonNode rootNode = objectMapper.readTree(file.getInputStream());
+            importJson(inputStream, node -> List.of(createContactFromJson(node, userToken, tenantUniqueName)), null, sink);
+        } catch (Exception e) {
+            throw new IOException("Napaka pri uvozu JSON datoteke", e);
+        }
+    }
+
+    private void importJson(InputStream inputStream, ParallelContactMapper.RowMapper<JsonNode> nodeMapper, RootObjectImporter rootObjectImporter, Consumer<List<ContactDTO>> sink) throws IOException {
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            int imported = 0;
+            if (token == JsonToken.START_ARRAY) {
+                imported = importArray(parser, nodeMapper, sink);
+            } else if (token == JsonToken.START_OBJECT && rootObjectImporter != null) {
+                imported = rootObjectImporter.importObject(parser, sink);
+            } else if (token != null) {
+                imported = importNodes(List.of(parser.readValueAsTree()), nodeMapper, sink);
+            }
+            log.log(Level.INFO, "Imported {0} contacts from JSON", imported);
+        }
+    }
 
-            if (rootNode.isArray()) {
-                for (JsonNode node : rootNode) {
-                    ContactDTO contact = createContactFromJson(node, userToken, tenantUniqueName);
-                    contacts.add(contact);
+    private int importArray(JsonParser parser, ParallelContactMapper.RowMapper<JsonNode> nodeMapper, Consumer<List<ContactDTO>> sink) throws IOException {
+        try (ParallelContactMapper.OrderedBatchWriter<JsonNode> writer = parallelContactMapper.writer(nodeMapper, sink)) {
+            List<JsonNode> batch = new ArrayList<>(importBatchSize);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                batch.add(parser.readValueAsTree());
+                if (batch.size() >= importBatchSize) {
+                    writer.submit(batch);
+                    batch = new ArrayList<>(importBatchSize);
                 }
-            } else {
-                ContactDTO contact = createContactFromJson(rootNode, userToken, tenantUniqueName);
-                contacts.add(contact);
             }
+            writer.submit(batch);
+            return writer.finish();
+        }
+    }
 
-            contactServices.saveAllContacts(contacts);
-        } catch (Exception e) {
-            throw new IOException("Napaka pri uvozu JSON datoteke", e);
+    private int importNodes(List<JsonNode> nodes, ParallelContactMapper.RowMapper<JsonNode> nodeMapper, Consumer<List<ContactDTO>> sink) throws IOException {
+        try (ParallelContactMapper.OrderedBatchWriter<JsonNode> writer = parallelContactMapper.writer(nodeMapper, sink)) {
+            writer.submit(nodes);
+            return writer.finish();
         }
     }
 
+    @FunctionalInterface
+    private interface RootObjectImporter {
+        int importObject(JsonParser parser, Consumer<List<ContactDTO>> sink) throws IOException;
+    }
+
     private ContactDTO createContactFromJson(JsonNode node, String userToken, String tenantUniqueName) {
         ContactDTO contact = new ContactDTO();
         contact.setId(UUID.randomUUID().toString());
@@ -123,44 +176,59 @@ public class ImportContactJson {
     }
 
     public void importRegistrationContactsFromJson(MultipartFile file, String userToken, String tenantUniqueName) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        List<ContactDTO> contacts = new ArrayList<>();
+        try (InputStream inputStream = file.getInputStream()) {
+            importRegistrationContactsFromJson(inputStream, userToken, tenantUniqueName, contactServices::saveAllContacts);
+        }
+    }
 
+    public void importRegistrationContactsFromJson(InputStream inputStream, String userToken, String tenantUniqueName, Consumer<List<ContactDTO>> sink) throws IOException {
         try {
-            JsonNode rootNode = objectMapper.readTree(file.getInputStream());
-            JsonNode typeNode = rootNode.get("type");
+            importJson(inputStream, node -> createRegistrationContacts(node, userToken, tenantUniqueName),
+                    (parser, objectSink) -> importRegistrationObject(parser, userToken, tenantUniqueName, objectSink), sink);
+        } catch (Exception e) {
+            throw new IOException("Napaka pri uvozu JSON datoteke", e);
+        }
+    }
 
-            if (typeNode == null) {
-                throw new IOException("Manjkajoči atribut 'type' v JSON datoteki.");
+    // Streams the participants array in batches once the registration type is known.
+    private int importRegistrationObject(JsonParser parser, String userToken, String tenantUniqueName, Consumer<List<ContactDTO>> sink) throws IOException {
+        ObjectNode header = objectMapper.createObjectNode();
+        int imported = 0;
+        boolean participantsStreamed = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (field.equals("participants") && value == JsonToken.START_ARRAY && !participantsStreamed && PARTICIPANT_TYPES.contains(header.path("type").asText())) {
+                Map<String, String> sharedProps = sharedRegistrationProps(header);
+                imported += importArray(parser, participant -> List.of(createParticipantContact(participant, sharedProps, userToken, tenantUniqueName)), sink);
+                participantsStreamed = true;
+                continue;
             }
-
-            String type = typeNode.asText();
-
-            switch (type) {
-                case "student":
-                    ContactDTO studentContact = createStudentContact(rootNode, userToken, tenantUniqueName);
-                    contacts.add(studentContact);
-                    break;
-
-                case "regular":
-                    List<ContactDTO> regularContacts = createRegularContacts(rootNode, userToken, tenantUniqueName);
-                    contacts.addAll(regularContacts);
-                    break;
-
-                case "group":
-                    List<ContactDTO> groupContacts = createGroupContacts(rootNode, userToken, tenantUniqueName);
-                    contacts.addAll(groupContacts);
-                    break;
-
-                default:
-                    throw new IOException("Neznan tip JSON datoteke: " + type);
+            if (participantsStreamed && SHARED_REGISTRATION_FIELDS.contains(field)) {
+                throw new IOException("Atribut '" + field + "' mora biti pred 'participants' v JSON datoteki.");
             }
+            header.set(field, parser.readValueAsTree());
+        }
+        if (!participantsStreamed) {
+            imported += importNodes(List.of(header), node -> createRegistrationContacts(node, userToken, tenantUniqueName), sink);
+        }
+        return imported;
+    }
 
-            contactServices.saveAllContacts(contacts);
+    private List<ContactDTO> createRegistrationContacts(JsonNode rootNode, String userToken, String tenantUniqueName) throws IOException {
+        JsonNode typeNode = rootNode.get("type");
 
-        } catch (Exception e) {
-            throw new IOException("Napaka pri uvozu JSON datoteke", e);
+        if (typeNode == null) {
+            throw new IOException("Manjkajoči atribut 'type' v JSON datoteki.");
         }
+
+        String type = typeNode.asText();
+
+        return switch (type) {
+            case "student" -> List.of(createStudentContact(rootNode, userToken, tenantUniqueName));
+            case "regular", "group" -> createParticipantContacts(rootNode, userToken, tenantUniqueName);
+            default -> throw new IOException("Neznan tip JSON datoteke: " + type);
+        };
     }
 
     private ContactDTO createStudentContact(JsonNode node, String userToken, String tenantUniqueName) {
@@ -211,176 +279,95 @@ public class ImportContactJson {
         return contact;
     }
 
-    private List<ContactDTO> createRegularContacts(JsonNode node, String userToken, String tenantUniqueName) {
+    private List<ContactDTO> createParticipantContacts(JsonNode node, String userToken, String tenantUniqueName) {
         List<ContactDTO> contacts = new ArrayList<>();
-
-        String companyName = getJsonFieldAsString(node, "companyName");
-        String companyLabel = getJsonFieldAsString(node, "companyLabel");
-        String companyAddress = getJsonFieldAsString(node, "companyAddress");
-        String companyZip = getJsonFieldAsString(node, "companyZip");
-        String companyCity = getJsonFieldAsString(node, "companyCity");
-        String vatId = getJsonFieldAsString(node, "vatId");
-
+        Map<String, String> sharedProps = sharedRegistrationProps(node);
         JsonNode participantsNode = node.path("participants");
         if (participantsNode.isArray()) {
             for (JsonNode participantNode : participantsNode) {
-                ContactDTO contact = new ContactDTO();
-                contact.setId(UUID.randomUUID().toString());
-
-                Map<String, String> props = new HashMap<>();
-                props.put("companyName", companyName);
-                props.put("companyLabel", companyLabel);
-                props.put("companyAddress", companyAddress);
-                props.put("companyZip", companyZip);
-                props.put("companyCity", companyCity);
-                props.put("vatId", vatId);
-
-                String firstName = getJsonFieldAsString(participantNode, "firstName");
-                String lastName = getJsonFieldAsString(participantNode, "lastName");
-                String email = getJsonFieldAsString(participantNode, "email");
-
-                contact.setTitle(createTitleFromProps(firstName, lastName));
-                contact.setUser(userToken);
-                contact.setTenantUniqueName(tenantUniqueName);
-                contact.setCreatedAt(LocalDateTime.now().toString());
-
-                props.put("registrationType", getJsonFieldAsString(participantNode, "registrationType"));
-                props.put("proceedingsFormat", getJsonFieldAsString(participantNode, "proceedingsFormat"));
-                props.put("tshirt", getJsonFieldAsString(participantNode, "tshirt"));
-                props.put("tshirtSize", getJsonFieldAsString(participantNode, "tshirtSize"));
-                props.put("specialDietary", getJsonFieldAsString(participantNode, "specialDietary"));
-                props.put("firstName", firstName);
-                props.put("lastName", lastName);
-                props.put("email", email);
-
-                //Delavnice in dogodki pod tage
-                List<String> tags = new ArrayList<>();
-                JsonNode workshopsNode = participantNode.path("workshops");
-                if (workshopsNode.isArray()) {
-                    for (JsonNode workshop : workshopsNode) {
-                        if((workshop.asText()).equals("None")){
-                            continue;
-                        }
-                        tags.add(workshop.asText());
-                    }
-                }
-                JsonNode eventsNode = participantNode.path("events");
-                if (eventsNode.isArray()) {
-                    for (JsonNode event : eventsNode) {
-                        tags.add(event.asText());
-                    }
-                }
-                contact.setTags(tags);
-
-                //Dodamo pogoje (terms) pod komentarje
-                List<String> terms = new ArrayList<>();
-                JsonNode termsNode = participantNode.path("terms");
-                if (termsNode.isArray()) {
-                    for (JsonNode term : termsNode) {
-                        terms.add(term.asText());
-                    }
-                }
-                contact.setComments(String.join(", ", terms));
-
-                contact.setProps(props);
-                contact.setAttributesToString(contact.contactAttributesToString());
-
-                contacts.add(contact);
+                contacts.add(createParticipantContact(participantNode, sharedProps, userToken, tenantUniqueName));
             }
         }
         return contacts;
+    }
+
+    private Map<String, String> sharedRegistrationProps(JsonNode node) {
+        Map<String, String> props = new HashMap<>();
+        props.put("companyName", getJsonFieldAsString(node, "companyName"));
+        props.put("companyLabel", getJsonFieldAsString(node, "companyLabel"));
+        props.put("companyAddress", getJsonFieldAsString(node, "companyAddress"));
+        props.put("companyZip", getJsonFieldAsString(node, "companyZip"));
+        props.put("companyCity", getJsonFieldAsString(node, "companyCity"));
+        props.put("vatId", getJsonFieldAsString(node, "vatId"));
+
+        //Zdaj so pri vsakem participantu tudi podatki kontaktne osebe al kak bi blo najbolše ???
+        if (getJsonFieldAsString(node, "type").equals("group")) {
+            JsonNode contactNode = node.path("contact");
+            props.put("contactFirstName", getJsonFieldAsString(contactNode, "firstName"));
+            props.put("contactLastName", getJsonFieldAsString(contactNode, "lastName"));
+            props.put("contactEmail", getJsonFieldAsString(contactNode, "email"));
+            props.put("contactPhone", getJsonFieldAsString(contactNode, "phone"));
         }
+        return props;
+    }
 
-    private List<ContactDTO> createGroupContacts(JsonNode node, String userToken, String tenantUniqueName) {
-        List<ContactDTO> contacts = new ArrayList<>();
+    private ContactDTO createParticipantContact(JsonNode participantNode, Map<String, String> sharedProps, String userToken, String tenantUniqueName) {
+        ContactDTO contact = new ContactDTO();
+        contact.setId(UUID.randomUUID().toString());
 
-        String companyName = getJsonFieldAsString(node, "companyName");
-        String companyLabel = getJsonFieldAsString(node, "companyLabel");
-        String companyAddress = getJsonFieldAsString(node, "companyAddress");
-        String companyZip = getJsonFieldAsString(node, "companyZip");
-        String companyCity = getJsonFieldAsString(node, "companyCity");
-        String vatId = getJsonFieldAsString(node, "vatId");
+        Map<String, String> props = new HashMap<>(sharedProps);
 
-        JsonNode contactNode = node.path("contact");
-        String contactFirstName = getJsonFieldAsString(contactNode, "firstName");
-        String contactLastName = getJsonFieldAsString(contactNode, "lastName");
-        String contactEmail = getJsonFieldAsString(contactNode, "email");
-        String contactPhone = getJsonFieldAsString(contactNode, "phone");
+        String firstName = getJsonFieldAsString(participantNode, "firstName");
+        String lastName = getJsonFieldAsString(participantNode, "lastName");
+        String email = getJsonFieldAsString(participantNode, "email");
 
+        contact.setTitle(createTitleFromProps(firstName, lastName));
+        contact.setUser(userToken);
+        contact.setTenantUniqueName(tenantUniqueName);
+        contact.setCreatedAt(LocalDateTime.now().toString());
 
-        JsonNode participantsNode = node.path("participants");
-        if (participantsNode.isArray()) {
-            for (JsonNode participantNode : participantsNode) {
-                ContactDTO contact = new ContactDTO();
-                contact.setId(UUID.randomUUID().toString());
-
-                Map<String, String> props = new HashMap<>();
-                props.put("companyName", companyName);
-                props.put("companyLabel", companyLabel);
-                props.put("companyAddress", companyAddress);
-                props.put("companyZip", companyZip);
-                props.put("companyCity", companyCity);
-                props.put("vatId", vatId);
-
-                //Zdaj so pri vsakem participantu tudi podatki kontaktne osebe al kak bi blo najbolše ???
-                props.put("contactFirstName", contactFirstName);
-                props.put("contactLastName", contactLastName);
-                props.put("contactEmail", contactEmail);
-                props.put("contactPhone", contactPhone);
-
-                String firstName = getJsonFieldAsString(participantNode, "firstName");
-                String lastName = getJsonFieldAsString(participantNode, "lastName");
-                String email = getJsonFieldAsString(participantNode, "email");
-
-                contact.setTitle(createTitleFromProps(firstName, lastName));
-                contact.setUser(userToken);
-                contact.setTenantUniqueName(tenantUniqueName);
-                contact.setCreatedAt(LocalDateTime.now().toString());
-
-                props.put("registrationType", getJsonFieldAsString(participantNode, "registrationType"));
-                props.put("proceedingsFormat", getJsonFieldAsString(participantNode, "proceedingsFormat"));
-                props.put("tshirt", getJsonFieldAsString(participantNode, "tshirt"));
-                props.put("tshirtSize", getJsonFieldAsString(participantNode, "tshirtSize"));
-                props.put("specialDietary", getJsonFieldAsString(participantNode, "specialDietary"));
-                props.put("firstName", firstName);
-                props.put("lastName", lastName);
-                props.put("email", email);
-
-                //Delavnice in dogodki pod tage
-                List<String> tags = new ArrayList<>();
-                JsonNode workshopsNode = participantNode.path("workshops");
-                if (workshopsNode.isArray()) {
-                    for (JsonNode workshop : workshopsNode) {
-                        if((workshop.asText()).equals("None")){
-                            continue;
-                        }
-                        tags.add(workshop.asText());
-                    }
-                }
-                JsonNode eventsNode = participantNode.path("events");
-                if (eventsNode.isArray()) {
-                    for (JsonNode event : eventsNode) {
-                        tags.add(event.asText());
-                    }
-                }
-                contact.setTags(tags);
-
-                List<String> terms = new ArrayList<>();
-                JsonNode termsNode = participantNode.path("terms");
-                if (termsNode.isArray()) {
-                    for (JsonNode term : termsNode) {
-                        terms.add(term.asText());
-                    }
-                }
-                contact.setComments(String.join(", ", terms));
+        props.put("registrationType", getJsonFieldAsString(participantNode, "registrationType"));
+        props.put("proceedingsFormat", getJsonFieldAsString(participantNode, "proceedingsFormat"));
+        props.put("tshirt", getJsonFieldAsString(participantNode, "tshirt"));
+        props.put("tshirtSize", getJsonFieldAsString(participantNode, "tshirtSize"));
+        props.put("specialDietary", getJsonFieldAsString(participantNode, "specialDietary"));
+        props.put("firstName", firstName);
+        props.put("lastName", lastName);
+        props.put("email", email);
 
-                contact.setProps(props);
-                contact.setAttributesToString(contact.contactAttributesToString());
+        //Delavnice in dogodki pod tage
+        List<String> tags = new ArrayList<>();
+        JsonNode workshopsNode = participantNode.path("workshops");
+        if (workshopsNode.isArray()) {
+            for (JsonNode workshop : workshopsNode) {
+                if((workshop.asText()).equals("None")){
+                    continue;
+                }
+                tags.add(workshop.asText());
+            }
+        }
+        JsonNode eventsNode = participantNode.path("events");
+        if (eventsNode.isArray()) {
+            for (JsonNode event : eventsNode) {
+                tags.add(event.asText());
+            }
+        }
+        contact.setTags(tags);
 
-                contacts.add(contact);
+        //Dodamo pogoje (terms) pod komentarje
+        List<String> terms = new ArrayList<>();
+        JsonNode termsNode = participantNode.path("terms");
+        if (termsNode.isArray()) {
+            for (JsonNode term : termsNode) {
+                terms.add(term.asText());
             }
         }
-        return contacts;
+        contact.setComments(String.join(", ", terms));
+
+        contact.setProps(props);
+        contact.setAttributesToString(contact.contactAttributesToString());
+
+        return contact;
     }
 
-}
\ No newline at end of file
+}
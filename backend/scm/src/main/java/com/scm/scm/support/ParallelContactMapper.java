@@ -0,0 +1,113 @@
+package com.scm.scm.support;
+
+import com.scm.scm.contact.dto.ContactDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+@Component
+public class ParallelContactMapper {
+
+    private final int parallelism;
+    private final ExecutorService pool;
+
+    @Autowired
+    public ParallelContactMapper(@Value("${scm.import.mapping-threads:0}") int threads) {
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "contact-import-mapper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <R> OrderedBatchWriter<R> writer(RowMapper<R> rowMapper, Consumer<List<ContactDTO>> sink) {
+        return new OrderedBatchWriter<>(rowMapper, sink);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<R> {
+        List<ContactDTO> map(R row) throws Exception;
+    }
+
+    // Not thread-safe: batches must be submitted from the single importing thread.
+    public class OrderedBatchWriter<R> implements AutoCloseable {
+
+        private final RowMapper<R> rowMapper;
+        private final Consumer<List<ContactDTO>> sink;
+        private final Deque<Future<List<ContactDTO>>> inFlight = new ArrayDeque<>();
+        private int written;
+
+        private OrderedBatchWriter(RowMapper<R> rowMapper, Consumer<List<ContactDTO>> sink) {
+            this.rowMapper = rowMapper;
+            this.sink = sink;
+        }
+
+        public void submit(List<R> rows) throws IOException {
+            if (rows.isEmpty()) {
+                return;
+            }
+            inFlight.addLast(pool.submit(() -> mapAll(rows)));
+            while (inFlight.size() > parallelism) {
+                writeNext();
+            }
+        }
+
+        public int finish() throws IOException {
+            while (!inFlight.isEmpty()) {
+                writeNext();
+            }
+            return written;
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+        }
+
+        private List<ContactDTO> mapAll(List<R> rows) throws Exception {
+            List<ContactDTO> contacts = new ArrayList<>(rows.size());
+            for (R row : rows) {
+                contacts.addAll(rowMapper.map(row));
+            }
+            return contacts;
+        }
+
+        private void writeNext() throws IOException {
+            List<ContactDTO> contacts;
+            try {
+                contacts = inFlight.removeFirst().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException(e.getCause().getMessage(), e.getCause());
+            }
+            if (!contacts.isEmpty()) {
+                sink.accept(contacts);
+                written += contacts.size();
+            }
+        }
+    }
+}
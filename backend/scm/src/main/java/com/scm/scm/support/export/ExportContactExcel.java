@@ -5,6 +5,7 @@ import com.scm.scm.contact.services.ContactServices;
 import org.apache.poi.ooxml.POIXMLProperties;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFColor;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -21,14 +23,20 @@ import java.nio.charset.StandardCharsets;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ExportContactExcel {
 
     private static final Logger log = Logger.getLogger(ExportContactExcel.class.toString());
 
+    private static final String EXCEL_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final int STREAM_ROW_WINDOW = 500;
+    private static final int COLUMN_WIDTH_SAMPLE_ROWS = 200;
+    private static final int MAX_COLUMN_WIDTH = 255 * 256;
+
     private final ContactServices contactServices;
 
     @Autowired
@@ -37,9 +45,6 @@ public class ExportContactExcel {
     }
 
     public ResponseEntity<byte[]> exportContacts(String tenantUniqueName, List<String> contactIds) {
-        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-        String currentDateTime = dateFormat.format(new Date());
-
         List<ContactDTO> contacts = contactServices.findAllContacts(tenantUniqueName, false);
 
         if (!contactIds.isEmpty()) {
@@ -74,6 +79,107 @@ public class ExportContactExcel {
         Collections.sort(sortedTags);
         Collections.sort(sortedProps);
 
+        Row headerRow = createHeaderRow(workbook, sheet, sortedProps, sortedTags);
+        CellStyle[] rowStyles = createRowStyles(workbook);
+
+        for (int i = 0; i < contacts.size(); i++) {
+            writeContactRow(sheet.createRow(i + 1), contacts.get(i), sortedProps, sortedTags, rowStyles[i % 2]);
+        }
+
+        // Enable filtering
+        sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, headerRow.getPhysicalNumberOfCells() - 1));
+
+        // Auto size columns
+        for (int i = 0; i < headerRow.getPhysicalNumberOfCells(); i++) {
+            sheet.autoSizeColumn(i);
+            sheet.setColumnWidth(i, sheet.getColumnWidth(i) + 1024);
+        }
+
+
+        byte[] bytes;
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            workbook.write(bos);
+            bytes = bos.toByteArray();
+        } catch (IOException e) {
+            log.severe("Error while creating Excel file: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        } finally {
+            try {
+                workbook.close();
+            } catch (IOException e) {
+                log.severe("Error while closing workbook: " + e.getMessage());
+            }
+        }
+
+        return ResponseEntity.ok()
+                .headers(createDownloadHeaders(tenantUniqueName))
+                .body(bytes);
+    }
+
+    // Bounds heap use only: SXSSF spills rows to a temp file and nothing reaches the client before workbook.write.
+    public ResponseEntity<StreamingResponseBody> exportContactsStream(String tenantUniqueName, List<String> contactIds) {
+        Set<String> allTags = new TreeSet<>();
+        Set<String> allProps = new TreeSet<>();
+        AtomicInteger contactCount = new AtomicInteger();
+
+        try (Stream<ContactDTO> contacts = contactServices.streamContacts(tenantUniqueName, contactIds)) {
+            contacts.forEach(contact -> {
+                allTags.addAll(contact.getTags());
+                allProps.addAll(contact.getProps().keySet());
+                contactCount.incrementAndGet();
+            });
+        }
+
+        if (contactCount.get() == 0) {
+            log.info("No contacts found for the provided IDs.");
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+
+        List<String> sortedTags = new ArrayList<>(allTags);
+        List<String> sortedProps = new ArrayList<>(allProps);
+
+        StreamingResponseBody body = outputStream -> {
+            SXSSFWorkbook workbook = new SXSSFWorkbook(STREAM_ROW_WINDOW);
+            workbook.setCompressTempFiles(true);
+            try (Stream<ContactDTO> contacts = contactServices.streamContacts(tenantUniqueName, contactIds)) {
+                workbook.getXSSFWorkbook().getProperties().getCoreProperties().setCreator("SCM");
+
+                Sheet sheet = workbook.createSheet("Contacts");
+                Row headerRow = createHeaderRow(workbook, sheet, sortedProps, sortedTags);
+                CellStyle[] rowStyles = createRowStyles(workbook);
+
+                int columnCount = headerRow.getPhysicalNumberOfCells();
+                int[] maxLengths = new int[columnCount];
+                sampleColumnLengths(headerRow, maxLengths);
+
+                int rowIdx = 1;
+                for (Iterator<ContactDTO> iterator = contacts.iterator(); iterator.hasNext(); rowIdx++) {
+                    Row row = sheet.createRow(rowIdx);
+                    writeContactRow(row, iterator.next(), sortedProps, sortedTags, rowStyles[(rowIdx - 1) % 2]);
+                    if (rowIdx <= COLUMN_WIDTH_SAMPLE_ROWS) {
+                        sampleColumnLengths(row, maxLengths);
+                    }
+                }
+
+                sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, columnCount - 1));
+                for (int i = 0; i < columnCount; i++) {
+                    sheet.setColumnWidth(i, Math.min(MAX_COLUMN_WIDTH, (maxLengths[i] + 1) * 256 + 1024));
+                }
+
+                workbook.write(outputStream);
+                log.info("Exported " + (rowIdx - 1) + " contacts to Excel for tenant: " + tenantUniqueName);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+        };
+
+        return ResponseEntity.ok()
+                .headers(createDownloadHeaders(tenantUniqueName))
+                .body(body);
+    }
+
+    private Row createHeaderRow(Workbook workbook, Sheet sheet, List<String> sortedProps, List<String> sortedTags) {
         Row headerRow = sheet.createRow(0);
         int colIdx = 0;
 
@@ -87,7 +193,7 @@ public class ExportContactExcel {
             headerRow.createCell(colIdx++).setCellValue(tag);
         }
 
-        headerRow.createCell(colIdx++).setCellValue("Comments");
+        headerRow.createCell(colIdx).setCellValue("Comments");
 
         // Set header row style
         CellStyle headerStyle = workbook.createCellStyle();
@@ -103,7 +209,10 @@ public class ExportContactExcel {
         for (Cell cell : headerRow) {
             cell.setCellStyle(headerStyle);
         }
+        return headerRow;
+    }
 
+    private CellStyle[] createRowStyles(Workbook workbook) {
         // Create alternating row style with light gray color
         CellStyle evenRowStyle = workbook.createCellStyle();
         XSSFColor lightGrayColor = new XSSFColor(new java.awt.Color(220, 220, 220), null);
@@ -114,66 +223,53 @@ public class ExportContactExcel {
         defaultCellStyle.setFillForegroundColor(IndexedColors.WHITE.getIndex());
         defaultCellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
-        for (int i = 0; i < contacts.size(); i++) {
-            ContactDTO contact = contacts.get(i);
-            Row row = sheet.createRow(i + 1);
-            int cellIdx = 0;
-
-            Cell cellTitle = row.createCell(cellIdx++);
-            cellTitle.setCellValue(contact.getTitle());
-            cellTitle.setCellStyle((i % 2 == 0) ? evenRowStyle : defaultCellStyle);
-
-            for (String prop : sortedProps) {
-                String propValue = contact.getProps().getOrDefault(prop, "");
-                Cell cell = row.createCell(cellIdx++);
-                cell.setCellValue(propValue);
-                cell.setCellStyle((i % 2 == 0) ? evenRowStyle : defaultCellStyle);
-            }
+        return new CellStyle[]{evenRowStyle, defaultCellStyle};
+    }
 
-            for (String tag : sortedTags) {
-                Cell cell = row.createCell(cellIdx++);
-                cell.setCellValue(contact.getTags().contains(tag) ? tag : "");
-                cell.setCellStyle((i % 2 == 0) ? evenRowStyle : defaultCellStyle);
-            }
+    private void writeContactRow(Row row, ContactDTO contact, List<String> sortedProps, List<String> sortedTags, CellStyle style) {
+        int cellIdx = 0;
+
+        Cell cellTitle = row.createCell(cellIdx++);
+        cellTitle.setCellValue(contact.getTitle());
+        cellTitle.setCellStyle(style);
 
+        for (String prop : sortedProps) {
+            String propValue = contact.getProps().getOrDefault(prop, "");
             Cell cell = row.createCell(cellIdx++);
-            cell.setCellValue(contact.getComments());
-            cell.setCellStyle((i % 2 == 0) ? evenRowStyle : defaultCellStyle);
+            cell.setCellValue(propValue);
+            cell.setCellStyle(style);
         }
 
-        // Enable filtering
-        sheet.setAutoFilter(new CellRangeAddress(0, 0, 0, headerRow.getPhysicalNumberOfCells() - 1));
-
-        // Auto size columns
-        for (int i = 0; i < headerRow.getPhysicalNumberOfCells(); i++) {
-            sheet.autoSizeColumn(i);
-            sheet.setColumnWidth(i, sheet.getColumnWidth(i) + 1024);
+        for (String tag : sortedTags) {
+            Cell cell = row.createCell(cellIdx++);
+            cell.setCellValue(contact.getTags().contains(tag) ? tag : "");
+            cell.setCellStyle(style);
         }
 
+        Cell cell = row.createCell(cellIdx);
+        cell.setCellValue(contact.getComments());
+        cell.setCellStyle(style);
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            workbook.write(bos);
-            bytes = bos.toByteArray();
-        } catch (IOException e) {
-            log.severe("Error while creating Excel file: " + e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } finally {
-            try {
-                workbook.close();
-            } catch (IOException e) {
-                log.severe("Error while closing workbook: " + e.getMessage());
+    private void sampleColumnLengths(Row row, int[] maxLengths) {
+        for (Cell cell : row) {
+            int index = cell.getColumnIndex();
+            String value = cell.getStringCellValue();
+            if (index < maxLengths.length && value != null) {
+                maxLengths[index] = Math.max(maxLengths[index], value.length());
             }
         }
+    }
+
+    private HttpHeaders createDownloadHeaders(String tenantUniqueName) {
+        DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        String currentDateTime = dateFormat.format(new Date());
 
         String filename = tenantUniqueName + "_contacts_" + currentDateTime + ".xlsx";
         String encodedFilename = URLEncoder.encode(filename, StandardCharsets.UTF_8);
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"));
+        headers.setContentType(MediaType.parseMediaType(EXCEL_CONTENT_TYPE));
         headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename*=UTF-8''" + encodedFilename);
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .body(bytes);
+        return headers;
     }
 }
@@ -0,0 +1,104 @@
+package com.scm.scm.support.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import org.apache.commons.text.StringEscapeUtils;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+@Service
+public class ExportContactJson {
+
+    private static final Logger log = Logger.getLogger(ExportContactJson.class.toString());
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ContactServices contactServices;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public ExportContactJson(ContactServices contactServices, ObjectMapper objectMapper) {
+        this.contactServices = contactServices;
+        this.objectMapper = objectMapper;
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportContactsStream(PredefinedSearch search, List<String> fields, boolean ndjson) {
+        Stream<Document> contacts = contactServices.streamContactDocuments(search, fields);
+        StreamingResponseBody body = outputStream -> {
+            long count = 0;
+            try (contacts; JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                if (ndjson) {
+                    generator.setRootValueSeparator(null);
+                } else {
+                    generator.writeStartArray();
+                }
+                for (Iterator<Document> iterator = contacts.iterator(); iterator.hasNext(); count++) {
+                    writeContact(generator, iterator.next());
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                }
+                if (!ndjson) {
+                    generator.writeEndArray();
+                }
+            }
+            log.log(Level.INFO, "Exported {0} contacts for tenant: {1}", new Object[]{count, search.getOnTenant()});
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private void writeContact(JsonGenerator generator, Document contact) throws IOException {
+        generator.writeStartObject();
+        Object id = contact.get("_id");
+        if (id != null) {
+            generator.writeFieldName("id");
+            generator.writeObject(decodeHtmlEntities(id.toString()));
+        }
+        for (Map.Entry<String, Object> field : contact.entrySet()) {
+            if (!"_id".equals(field.getKey()) && !"_class".equals(field.getKey())) {
+                generator.writeFieldName(field.getKey());
+                generator.writeObject(toExportValue(field.getValue()));
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    // Mirrors ContactServices.convertToDTO: stored strings are HTML-escaped and createdAt is a Date.
+    private Object toExportValue(Object value) {
+        if (value instanceof String string) {
+            return decodeHtmlEntities(string);
+        }
+        if (value instanceof Date date) {
+            return LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()).toString();
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> decoded = new LinkedHashMap<>();
+            map.forEach((key, entry) -> decoded.put(decodeHtmlEntities(String.valueOf(key)), toExportValue(entry)));
+            return decoded;
+        }
+        if (value instanceof Collection<?> collection) {
+            return collection.stream().map(this::toExportValue).toList();
+        }
+        return value;
+    }
+
+    private String decodeHtmlEntities(String input) {
+        return StringEscapeUtils.unescapeHtml4(input);
+    }
+}
@@ -6,7 +6,8 @@ import lombok.Getter;
 public enum CollectionType {
     MAIN("_main"),
     DELETED("_deleted"),
-    ACTIVITY("_activity");
+    ACTIVITY("_activity"),
+    ACTIVITY_ARCHIVE("_activity_archive");
 
     private final String collectionType;
 
@@ -1,9 +1,16 @@
 package com.scm.scm.support.mongoTemplate;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,6 +20,8 @@ public class MongoTemplateService {
     private static final Logger log = Logger.getLogger(MongoTemplateService.class.toString());
 
     private final MongoTemplate mongoTemplate;
+    private final Set<String> knownCollections = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean existingIndexesEnsured = new AtomicBoolean(false);
 
     @Autowired
     public MongoTemplateService(MongoTemplate mongoTemplate) {
@@ -21,9 +30,11 @@ public class MongoTemplateService {
 
     public boolean createNewTenantCollections(String tenantUniqueName) {
         try {
-            mongoTemplate.createCollection(tenantUniqueName + CollectionType.MAIN.getCollectionType());
-            mongoTemplate.createCollection(tenantUniqueName + CollectionType.DELETED.getCollectionType());
-            mongoTemplate.createCollection(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+            for (CollectionType collectionType : CollectionType.values()) {
+                mongoTemplate.createCollection(tenantUniqueName + collectionType.getCollectionType());
+                knownCollections.add(tenantUniqueName + collectionType.getCollectionType());
+            }
+            ensureTenantIndexes(tenantUniqueName);
         } catch (Exception e) {
             return false;
         }
@@ -31,8 +42,63 @@ public class MongoTemplateService {
         return true;
     }
 
+    public void dropTenantCollections(String tenantUniqueName) {
+        for (CollectionType collectionType : CollectionType.values()) {
+            knownCollections.remove(tenantUniqueName + collectionType.getCollectionType());
+            mongoTemplate.dropCollection(tenantUniqueName + collectionType.getCollectionType());
+        }
+        log.log(Level.INFO, "Dropped collections for tenant: {0}", tenantUniqueName);
+    }
+
+    public void ensureTenantIndexes(String tenantUniqueName) {
+        IndexOperations mainIndexes = mongoTemplate.indexOps(tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        mainIndexes.ensureIndex(createdAtIndex());
+        mainIndexes.ensureIndex(new Index().on("tags", Sort.Direction.ASC).named("tags"));
+        mainIndexes.ensureIndex(new Index().on("title", Sort.Direction.ASC).named("title"));
+
+        mongoTemplate.indexOps(tenantUniqueName + CollectionType.DELETED.getCollectionType()).ensureIndex(createdAtIndex());
+
+        IndexOperations activityIndexes = mongoTemplate.indexOps(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+        activityIndexes.ensureIndex(new Index().on("contact", Sort.Direction.ASC).on("eventTime", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("contact_eventTime_id"));
+        activityIndexes.ensureIndex(new Index().on("eventTime", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("eventTime_id"));
+        log.log(Level.INFO, "Ensured indexes for tenant: {0}", tenantUniqueName);
+    }
+
+    private Index createdAtIndex() {
+        return new Index().on("createdAt", Sort.Direction.ASC).on("_id", Sort.Direction.ASC).named("createdAt_id");
+    }
+
     public boolean collectionExists(String collectionName) {
-        log.log(Level.INFO, "Checking if collection exists: {0}", collectionName);
-        return mongoTemplate.collectionExists(collectionName);
+        if (knownCollections.contains(collectionName)) {
+            return true;
+        }
+        log.log(Level.FINE, "Checking if collection exists: {0}", collectionName);
+        boolean exists = mongoTemplate.collectionExists(collectionName);
+        if (exists) {
+            knownCollections.add(collectionName);
+        }
+        return exists;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${scm.collections.reconcile-interval-ms:300000}")
+    public void reconcileCollections() {
+        try {
+            Set<String> collectionNames = mongoTemplate.getCollectionNames();
+            knownCollections.retainAll(collectionNames);
+            knownCollections.addAll(collectionNames);
+            log.log(Level.FINE, "Collection registry reconciled with {0} collections", collectionNames.size());
+
+            if (!existingIndexesEnsured.get()) {
+                collectionNames.stream()
+                        .filter(name -> name.endsWith(CollectionType.MAIN.getCollectionType()))
+                        .map(name -> name.substring(0, name.length() - CollectionType.MAIN.getCollectionType().length()))
+                        .filter(tenant -> collectionNames.contains(tenant + CollectionType.DELETED.getCollectionType()))
+                        .filter(tenant -> collectionNames.contains(tenant + CollectionType.ACTIVITY.getCollectionType()))
+                        .forEach(this::ensureTenantIndexes);
+                existingIndexesEnsured.set(true);
+            }
+        } catch (Exception e) {
+            log.log(Level.WARNING, "Collection registry reconciliation failed: {0}", e.getMessage());
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.scm.scm.support.pagination;
+
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+@Data
+@AllArgsConstructor
+public class PageCursor {
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime time;
+    private String id;
+
+    // A null time is encoded as an empty prefix, for records that have no sort key.
+    public String encode() {
+        String raw = (time == null ? "" : time.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex < 0 || separatorIndex == raw.length() - 1) {
+                throw new IllegalArgumentException("Cursor is malformed");
+            }
+            LocalDateTime time = separatorIndex == 0 ? null : LocalDateTime.parse(raw.substring(0, separatorIndex));
+            return new PageCursor(time, raw.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CustomHttpException("Invalid page cursor", 400, ExceptionCause.USER_ERROR);
+        }
+    }
+}
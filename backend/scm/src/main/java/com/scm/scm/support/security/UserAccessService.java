@@ -5,21 +5,40 @@ import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.tenant.dao.TenantRepository;
 import com.scm.scm.tenant.vao.Tenant;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 @Service
 public class UserAccessService {
 
     private final TenantRepository repo;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final Map<String, Membership> membershipsById = new ConcurrentHashMap<>();
+    private final Map<String, Membership> membershipsByUniqueName = new ConcurrentHashMap<>();
+    private final Map<String, Long> idGenerations = new ConcurrentHashMap<>();
+    private final Map<String, Long> uniqueNameGenerations = new ConcurrentHashMap<>();
 
     private static final Logger log = Logger.getLogger(UserAccessService.class.toString());
 
     @Autowired
-    public UserAccessService(TenantRepository repo) {
+    public UserAccessService(TenantRepository repo, @Value("${scm.access.cache.ttl-seconds:60}") long ttlSeconds) {
+        this(repo, ttlSeconds, Clock.systemUTC());
+    }
+
+    UserAccessService(TenantRepository repo, long ttlSeconds, Clock clock) {
         this.repo = repo;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.clock = clock;
     }
 
     public boolean hasAccessToTenant(String username, String tenantId) {
@@ -27,12 +46,17 @@ public class UserAccessService {
             log.log(Level.SEVERE, "Checking user access: Username or TenantId is empty. Username: {0}, TenantId: {1}", new Object[]{username, tenantId});
             throw new CustomHttpException("Username or TenantId should not be empty", 400, ExceptionCause.USER_ERROR);
         }
-        Tenant tenant = repo.findById(tenantId).orElse(null);
-        if (tenant == null) {
-            log.log(Level.SEVERE, "Checking user access: Tenant not found with id: {0}", tenantId);
-            throw new CustomHttpException("Tenant not found", 404, ExceptionCause.USER_ERROR);
+        Membership membership = cachedMembership(membershipsById, tenantId);
+        if (membership == null) {
+            long generation = idGenerations.getOrDefault(tenantId, 0L);
+            Tenant tenant = repo.findUsersById(tenantId).orElse(null);
+            if (tenant == null) {
+                log.log(Level.SEVERE, "Checking user access: Tenant not found with id: {0}", tenantId);
+                throw new CustomHttpException("Tenant not found", 404, ExceptionCause.USER_ERROR);
+            }
+            membership = cacheMembership(tenant, idGenerations, tenantId, generation);
         }
-        return tenant.getUsers().contains(username);
+        return membership.users().contains(username);
     }
 
     public boolean hasAccessToContact(String username, String tenantUniqueName) {
@@ -40,12 +64,58 @@ public class UserAccessService {
             log.log(Level.SEVERE, "Checking user access: Username is empty or Contact is null. Username: {0}, TenantUniqueName: {1}", new Object[]{username, tenantUniqueName});
             throw new CustomHttpException("Username or Contact should not be null or empty", 400, ExceptionCause.USER_ERROR);
         }
-        Tenant tenant = repo.findByTenantUniqueName(tenantUniqueName);
-        if (tenant == null) {
-            log.log(Level.SEVERE, "Checking user access: Tenant not found with unique name: {0}", tenantUniqueName);
-            throw new CustomHttpException("Tenant not found", 404, ExceptionCause.USER_ERROR);
+        Membership membership = cachedMembership(membershipsByUniqueName, tenantUniqueName);
+        if (membership == null) {
+            long generation = uniqueNameGenerations.getOrDefault(tenantUniqueName, 0L);
+            Tenant tenant = repo.findUsersByTenantUniqueName(tenantUniqueName);
+            if (tenant == null) {
+                log.log(Level.SEVERE, "Checking user access: Tenant not found with unique name: {0}", tenantUniqueName);
+                throw new CustomHttpException("Tenant not found", 404, ExceptionCause.USER_ERROR);
+            }
+            membership = cacheMembership(tenant, uniqueNameGenerations, tenantUniqueName, generation);
         }
-        return tenant.getUsers().contains(username);
+        return membership.users().contains(username);
     }
 
-}
\ No newline at end of file
+    public void evictTenant(String tenantId, String tenantUniqueName) {
+        if (tenantId != null) {
+            idGenerations.merge(tenantId, 1L, Long::sum);
+            membershipsById.remove(tenantId);
+        }
+        if (tenantUniqueName != null) {
+            uniqueNameGenerations.merge(tenantUniqueName, 1L, Long::sum);
+            membershipsByUniqueName.remove(tenantUniqueName);
+        }
+        log.log(Level.FINE, "Evicted access cache for tenant: {0}", tenantUniqueName);
+    }
+
+    private Membership cachedMembership(Map<String, Membership> memberships, String key) {
+        Membership membership = memberships.get(key);
+        if (membership != null && clock.millis() - membership.loadedAt() >= ttlMillis) {
+            memberships.remove(key, membership);
+            return null;
+        }
+        return membership;
+    }
+
+    // Not cached when the tenant was evicted while it was being loaded, so a stale load cannot outlive the eviction.
+    private Membership cacheMembership(Tenant tenant, Map<String, Long> generations, String key, long generation) {
+        Set<String> users = tenant.getUsers() == null ? Set.of() : tenant.getUsers().stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+        Membership membership = new Membership(users, clock.millis());
+        if (ttlMillis > 0) {
+            generations.compute(key, (k, current) -> {
+                if ((current == null ? 0L : current) == generation) {
+                    membershipsById.put(tenant.getId(), membership);
+                    if (tenant.getTenantUniqueName() != null) {
+                        membershipsByUniqueName.put(tenant.getTenantUniqueName(), membership);
+                    }
+                }
+                return current;
+            });
+        }
+        return membership;
+    }
+
+    private record Membership(Set<String> users, long loadedAt) {
+    }
+}
@@ -4,9 +4,19 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseToken;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.exceptions.ExceptionCause;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,13 +24,104 @@ import java.util.logging.Logger;
 public class UserVerifyService {
     private static final Logger log = Logger.getLogger(UserAccessService.class.toString());
 
+    private final Map<String, CachedToken> tokenCache;
+    private final long revocationCheckMillis;
+    private final Clock clock;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    @Autowired
+    public UserVerifyService(@Value("${scm.auth.token-cache.max-size:10000}") int maxSize,
+                             @Value("${scm.auth.token-cache.revocation-check-seconds:0}") long revocationCheckSeconds) {
+        this(maxSize, revocationCheckSeconds, Clock.systemUTC());
+    }
+
+    UserVerifyService(int maxSize, long revocationCheckSeconds, Clock clock) {
+        this.tokenCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.revocationCheckMillis = revocationCheckSeconds * 1000;
+        this.clock = clock;
+    }
+
     public FirebaseToken verifyUserToken(String token) {
+        if (token == null || token.isEmpty()) {
+            log.log(Level.SEVERE, "Token is empty");
+            throw new CustomHttpException("Invalid token", HttpStatus.UNAUTHORIZED.value(), ExceptionCause.USER_ERROR);
+        }
+        String key = hashToken(token);
+        long now = clock.millis();
+        CachedToken cached;
+        synchronized (tokenCache) {
+            cached = tokenCache.get(key);
+            if (cached != null && now >= cached.expiresAt()) {
+                tokenCache.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null && (revocationCheckMillis <= 0 || now - cached.checkedAt() < revocationCheckMillis)) {
+            cacheHits.incrementAndGet();
+            return cached.token();
+        }
+        cacheMisses.incrementAndGet();
+
         try {
             log.log(Level.INFO, "Verifying user token");
-            return FirebaseAuth.getInstance().verifyIdToken(token);
+            FirebaseToken firebaseToken = cached != null
+                    ? FirebaseAuth.getInstance().verifyIdToken(token, true)
+                    : FirebaseAuth.getInstance().verifyIdToken(token);
+            cacheToken(key, firebaseToken, now);
+            return firebaseToken;
         } catch (Exception e) {
+            synchronized (tokenCache) {
+                tokenCache.remove(key);
+            }
             log.log(Level.SEVERE, "Invalid token: {0}", token);
             throw new CustomHttpException("Invalid token", HttpStatus.UNAUTHORIZED.value(), ExceptionCause.USER_ERROR);
         }
     }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    public int getCacheSize() {
+        synchronized (tokenCache) {
+            return tokenCache.size();
+        }
+    }
+
+    private void cacheToken(String key, FirebaseToken firebaseToken, long now) {
+        Object exp = firebaseToken.getClaims() != null ? firebaseToken.getClaims().get("exp") : null;
+        if (!(exp instanceof Number)) {
+            return;
+        }
+        long expiresAt = ((Number) exp).longValue() * 1000;
+        if (expiresAt <= now) {
+            return;
+        }
+        synchronized (tokenCache) {
+            tokenCache.put(key, new CachedToken(firebaseToken, expiresAt, now));
+        }
+        log.log(Level.FINE, "Token cache hits: {0}, misses: {1}", new Object[]{cacheHits.get(), cacheMisses.get()});
+    }
+
+    private static String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedToken(FirebaseToken token, long expiresAt, long checkedAt) {
+    }
 }
@@ -2,11 +2,19 @@ package com.scm.scm.tenant.dao;
 
 import com.scm.scm.tenant.vao.Tenant;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
 import java.util.List;
+import java.util.Optional;
 
 
 public interface TenantRepository extends MongoRepository<Tenant, String> {
     Tenant findByTenantUniqueName(String tenantUniqueName);
     List<Tenant> findByUsersContaining(String username);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'tenantUniqueName': 1, 'users': 1 }")
+    Optional<Tenant> findUsersById(String id);
+
+    @Query(value = "{ 'tenantUniqueName': ?0 }", fields = "{ 'tenantUniqueName': 1, 'users': 1 }")
+    Tenant findUsersByTenantUniqueName(String tenantUniqueName);
 }
@@ -0,0 +1,19 @@
+package com.scm.scm.tenant.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContactCountDTO {
+    private String tenantUniqueName;
+    private ContactCountMode mode;
+    private long total;
+    private Map<String, Long> tagCounts;
+}
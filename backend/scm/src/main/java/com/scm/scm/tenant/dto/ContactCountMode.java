@@ -0,0 +1,6 @@
+package com.scm.scm.tenant.dto;
+
+public enum ContactCountMode {
+    EXACT,
+    ESTIMATED
+}
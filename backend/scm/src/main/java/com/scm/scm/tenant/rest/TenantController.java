@@ -6,7 +6,10 @@ import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
 import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.support.security.UserVerifyService;
+import com.scm.scm.tenant.dto.ContactCountDTO;
+import com.scm.scm.tenant.dto.ContactCountMode;
 import com.scm.scm.tenant.dto.TenantDTO;
+import com.scm.scm.tenant.services.ContactCountServices;
 import com.scm.scm.tenant.services.TenantServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -24,13 +27,15 @@ public class TenantController {
     private final TenantServices tenantServices;
     private final UserAccessService userAccessService;
     private final UserVerifyService userVerifyService;
+    private final ContactCountServices contactCountServices;
 
 
     @Autowired
-    public TenantController(TenantServices tenantServices, UserAccessService userAccessService, UserVerifyService userVerifyService) {
+    public TenantController(TenantServices tenantServices, UserAccessService userAccessService, UserVerifyService userVerifyService, ContactCountServices contactCountServices) {
         this.tenantServices = tenantServices;
         this.userAccessService = userAccessService;
         this.userVerifyService = userVerifyService;
+        this.contactCountServices = contactCountServices;
 
     }
 
@@ -226,13 +231,25 @@ public class TenantController {
     }
 
     @GetMapping(value = "/size/{tenant_unique_name}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<Integer> getTenantSize(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken) {
+    public ResponseEntity<Long> getTenantSize(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken) {
         FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
 
         if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
             throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
         }
-        int size = tenantServices.getContactAmount(tenantUniqueName);
+        long size = contactCountServices.getContactAmount(tenantUniqueName);
         return ResponseEntity.ok(size);
     }
+
+    @GetMapping(value = "/count/{tenant_unique_name}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ContactCountDTO> getContactCount(@PathVariable("tenant_unique_name") String tenantUniqueName, @RequestHeader("userToken") String userToken,
+                                                           @RequestParam(name = "mode", defaultValue = "EXACT") ContactCountMode mode,
+                                                           @RequestParam(name = "byTag", defaultValue = "false") boolean byTag) {
+        FirebaseToken decodedToken = userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""));
+
+        if (!userAccessService.hasAccessToContact(decodedToken.getEmail(), tenantUniqueName)) {
+            throw new CustomHttpException(ExceptionMessage.USER_ACCESS_TENANT.getExceptionMessage(), 403, ExceptionCause.USER_ERROR);
+        }
+        return ResponseEntity.ok(contactCountServices.countContacts(tenantUniqueName, mode, byTag));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.scm.scm.tenant.services;
+
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import com.scm.scm.support.mongoTemplate.CollectionType;
+import com.scm.scm.tenant.dto.ContactCountDTO;
+import com.scm.scm.tenant.dto.ContactCountMode;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+@Service
+public class ContactCountServices {
+
+    private final MongoTemplate mongoTemplate;
+    private final long ttlMillis;
+    private final Map<CountKey, CachedCount> counts = new ConcurrentHashMap<>();
+
+    private static final Logger log = Logger.getLogger(ContactCountServices.class.toString());
+
+    @Autowired
+    public ContactCountServices(MongoTemplate mongoTemplate, @Value("${scm.tenants.count.cache.ttl-millis:5000}") long ttlMillis) {
+        this.mongoTemplate = mongoTemplate;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public long getContactAmount(String tenantUniqueName) {
+        return countContacts(tenantUniqueName, ContactCountMode.EXACT, false).getTotal();
+    }
+
+    public ContactCountDTO countContacts(String tenantUniqueName, ContactCountMode mode, boolean byTag) {
+        if (tenantUniqueName == null || tenantUniqueName.isEmpty()) {
+            throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
+        }
+        ContactCountMode countMode = mode == null ? ContactCountMode.EXACT : mode;
+        CountKey key = new CountKey(tenantUniqueName, countMode, byTag);
+        CachedCount cached = counts.get(key);
+        if (cached != null) {
+            if (System.currentTimeMillis() - cached.loadedAt() < ttlMillis) {
+                return cached.count();
+            }
+            counts.remove(key, cached);
+        }
+
+        String collectionName = tenantUniqueName + CollectionType.MAIN.getCollectionType();
+        long total = countMode == ContactCountMode.ESTIMATED
+                ? mongoTemplate.estimatedCount(collectionName)
+                : mongoTemplate.count(new Query(), collectionName);
+        ContactCountDTO count = ContactCountDTO.builder()
+                .tenantUniqueName(tenantUniqueName)
+                .mode(countMode)
+                .total(total)
+                .tagCounts(byTag ? countTags(collectionName) : null)
+                .build();
+        if (ttlMillis > 0) {
+            counts.put(key, new CachedCount(count, System.currentTimeMillis()));
+        }
+        log.log(Level.FINE, "Counted {0} contacts for tenant: {1}", new Object[]{total, tenantUniqueName});
+        return count;
+    }
+
+    public void evictTenant(String tenantUniqueName) {
+        counts.keySet().removeIf(key -> key.tenantUniqueName().equals(tenantUniqueName));
+    }
+
+    private Map<String, Long> countTags(String collectionName) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.unwind("tags"),
+                Aggregation.group("tags").count().as("count"),
+                Aggregation.sort(Sort.Direction.DESC, "count")
+        );
+        Map<String, Long> tagCounts = new LinkedHashMap<>();
+        for (Document result : mongoTemplate.aggregate(aggregation, collectionName, Document.class)) {
+            Object tag = result.get("_id");
+            Object count = result.get("count");
+            if (tag != null && count instanceof Number number) {
+                tagCounts.put(tag.toString(), number.longValue());
+            }
+        }
+        return tagCounts;
+    }
+
+    private record CountKey(String tenantUniqueName, ContactCountMode mode, boolean byTag) {
+    }
+
+    private record CachedCount(ContactCountDTO count, long loadedAt) {
+    }
+}
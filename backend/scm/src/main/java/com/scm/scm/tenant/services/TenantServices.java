@@ -1,6 +1,10 @@
 package com.scm.scm.tenant.services;
 
+import com.mongodb.client.result.UpdateResult;
+import com.scm.scm.contact.services.ContactSearchIndex;
+import com.scm.scm.contact.services.DuplicateDetector;
 import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.events.services.EventWriteBehind;
 import com.scm.scm.events.services.EventsServices;
 import com.scm.scm.events.vao.Event;
 import com.scm.scm.events.vao.EventState;
@@ -11,11 +15,15 @@ import com.scm.scm.support.exceptions.ExceptionCause;
 import com.scm.scm.support.exceptions.ExceptionMessage;
 import com.scm.scm.support.mongoTemplate.CollectionType;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.tenant.dao.TenantRepository;
 import com.scm.scm.tenant.dto.TenantDTO;
 import com.scm.scm.tenant.vao.Tenant;
 import lombok.AllArgsConstructor;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import java.util.*;
 import java.util.logging.Level;
@@ -30,8 +38,15 @@ public class TenantServices {
     private MongoTemplateService mongoTemplateService;
     private MongoTemplate mongoTemplate;
     private EventsServices eventsServices;
+    private EventWriteBehind eventWriteBehind;
+    private ContactSearchIndex contactSearchIndex;
+    private DuplicateDetector duplicateDetector;
+    private UserAccessService userAccessService;
+    private ContactCountServices contactCountServices;
     private static final Logger log = Logger.getLogger(TenantServices.class.toString());
 
+    private static final String CONTACT_TAGS = "contactTags.";
+
     private TenantDTO convertToDTO(Tenant tenant) {
         return TenantDTO.builder()
                 .id(tenant.getId())
@@ -105,6 +120,7 @@ public class TenantServices {
             oldTenant.setTitle(tenant.getTitle());
             oldTenant.setUsers(tenant.getUsers());
             tenantRepository.save(oldTenant);
+            userAccessService.evictTenant(oldTenant.getId(), oldTenant.getTenantUniqueName());
         } else {
             throw new CustomHttpException(ExceptionMessage.TENANT_NOT_FOUND.getExceptionMessage(), 404, ExceptionCause.USER_ERROR);
         }
@@ -115,16 +131,17 @@ public class TenantServices {
         Tenant tenant = tenantRepository.findById(id).orElseThrow(() -> new CustomHttpException(ExceptionMessage.TENANT_NOT_FOUND.getExceptionMessage(), 404, ExceptionCause.USER_ERROR));
         if (tenant != null) {
             tenantRepository.delete(tenant);
+            userAccessService.evictTenant(tenant.getId(), tenant.getTenantUniqueName());
 
             List <PredefinedSearch> searches = predefinedSearchRepository.findByOnTenant(tenant.getTenantUniqueName());
             predefinedSearchRepository.deleteAll(searches);
 
             String tenantUniqueName = tenant.getTenantUniqueName();
-            String[] collectionsToDelete = {tenantUniqueName + "_deleted", tenantUniqueName + "_main", tenantUniqueName + "_activity"};
-
-            for (String collectionName : collectionsToDelete) {
-                mongoTemplate.dropCollection(collectionName);
-            }
+            eventWriteBehind.discard(tenantUniqueName);
+            mongoTemplateService.dropTenantCollections(tenantUniqueName);
+            contactSearchIndex.invalidate(tenantUniqueName);
+            duplicateDetector.invalidate(tenantUniqueName);
+            contactCountServices.evictTenant(tenantUniqueName);
 
             return "Tenant successfully deleted";
         } else {
@@ -133,43 +150,79 @@ public class TenantServices {
     }
 
     public String addTags(String tenantUniqueName, List<String> tags) {
-        Tenant tenant = tenantRepository.findByTenantUniqueName(tenantUniqueName);
-        if (tenant != null) {
-            Map<String, Integer> oldTags = tenant.getContactTags();
-            for (String tag : tags) {
-                if (!oldTags.containsKey(tag)) {
-                    oldTags.put(tag, 1);
-                } else {
-                    oldTags.put(tag, oldTags.get(tag) + 1);
-                }
-            }
-            tenant.setContactTags(oldTags);
-            tenantRepository.save(tenant);
-            return "Tenant successfully added tags";
-        } else {
-            throw new CustomHttpException(ExceptionMessage.TENANT_NOT_FOUND.getExceptionMessage(), 404, ExceptionCause.USER_ERROR);
+        Map<String, Integer> deltas = new HashMap<>();
+        for (String tag : tags) {
+            deltas.merge(tag, 1, Integer::sum);
         }
+        applyTagDeltas(tenantUniqueName, deltas);
+        return "Tenant successfully added tags";
     }
 
     public String removeTags(String tenantUniqueName, List<String> tags) {
-        Tenant tenant = tenantRepository.findByTenantUniqueName(tenantUniqueName);
-        if (tenant != null) {
-            Map<String, Integer> oldTags = tenant.getContactTags();
-            for (String tag : tags) {
-                Integer tagCount = oldTags.get(tag);
-                if (tagCount != null) {
-                    oldTags.put(tag, tagCount - 1);
-                    if (oldTags.get(tag) == 0) {
-                        oldTags.remove(tag);
-                    }
+        Map<String, Integer> deltas = new HashMap<>();
+        for (String tag : tags) {
+            deltas.merge(tag, -1, Integer::sum);
+        }
+        applyTagDeltas(tenantUniqueName, deltas);
+        return "Tenant successfully removed tags";
+    }
+
+    public void applyTagDeltas(String tenantUniqueName, Map<String, Integer> deltas) {
+        Query tenantQuery = new Query(Criteria.where("tenantUniqueName").is(tenantUniqueName));
+        Update update = new Update();
+        Map<String, Integer> unsafeDeltas = new HashMap<>();
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            if (delta.getValue() == 0) {
+                continue;
+            }
+            if (isSafeFieldKey(delta.getKey())) {
+                update.inc(CONTACT_TAGS + delta.getKey(), delta.getValue());
+            } else {
+                unsafeDeltas.put(delta.getKey(), delta.getValue());
+            }
+        }
+
+        if (!update.getUpdateObject().isEmpty()) {
+            UpdateResult result = mongoTemplate.updateFirst(tenantQuery, update, Tenant.class);
+            if (result.getMatchedCount() == 0) {
+                throw new CustomHttpException(ExceptionMessage.TENANT_NOT_FOUND.getExceptionMessage(), 404, ExceptionCause.USER_ERROR);
+            }
+            for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+                if (delta.getValue() < 0 && isSafeFieldKey(delta.getKey())) {
+                    Query emptyTagQuery = new Query(Criteria.where("tenantUniqueName").is(tenantUniqueName).and(CONTACT_TAGS + delta.getKey()).lte(0));
+                    mongoTemplate.updateFirst(emptyTagQuery, new Update().unset(CONTACT_TAGS + delta.getKey()), Tenant.class);
                 }
             }
-            tenant.setContactTags(oldTags);
-            tenantRepository.save(tenant);
-            return "Tenant successfully removed tags";
-        } else {
+        }
+        if (!unsafeDeltas.isEmpty() || update.getUpdateObject().isEmpty()) {
+            applyTagDeltasBySave(tenantUniqueName, unsafeDeltas);
+        }
+        log.log(Level.FINE, "Applied {0} tag deltas for tenant: {1}", new Object[]{deltas.size(), tenantUniqueName});
+    }
+
+    private void applyTagDeltasBySave(String tenantUniqueName, Map<String, Integer> deltas) {
+        Tenant tenant = tenantRepository.findByTenantUniqueName(tenantUniqueName);
+        if (tenant == null) {
             throw new CustomHttpException(ExceptionMessage.TENANT_NOT_FOUND.getExceptionMessage(), 404, ExceptionCause.USER_ERROR);
         }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> oldTags = tenant.getContactTags();
+        for (Map.Entry<String, Integer> delta : deltas.entrySet()) {
+            int count = oldTags.getOrDefault(delta.getKey(), 0) + delta.getValue();
+            if (count > 0) {
+                oldTags.put(delta.getKey(), count);
+            } else {
+                oldTags.remove(delta.getKey());
+            }
+        }
+        tenant.setContactTags(oldTags);
+        tenantRepository.save(tenant);
+    }
+
+    private boolean isSafeFieldKey(String key) {
+        return !key.isEmpty() && !key.contains(".") && !key.startsWith("$");
     }
 
 
@@ -187,6 +240,7 @@ public class TenantServices {
             }
             tenant.setUsers(oldUsers);
             tenantRepository.save(tenant);
+            userAccessService.evictTenant(tenant.getId(), tenant.getTenantUniqueName());
             if (userCount == users.size()) {
                 return "No new users added";
             } else if (userCount > 0) {
@@ -215,6 +269,7 @@ public class TenantServices {
             }
             tenant.setUsers(oldUsers);
             tenantRepository.save(tenant);
+            userAccessService.evictTenant(tenant.getId(), tenant.getTenantUniqueName());
             if (usersNotRemovedCount > 0) {
                 return "Some users not removed as they do not exist in the tenant";
             }
@@ -243,25 +298,32 @@ public class TenantServices {
         if (tenantUniqueName.isEmpty()) {
             throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
         }
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-        for (Contact c : contacts) {
-            if (contactIds.contains(c.getId())) {
-                List<String> oldTags = c.getTags();
-                for (String tag : tags) {
-                    if (!oldTags.contains(tag)) {
-                        Event event = new Event(username, c.getId(), EventState.TAG_ADD);
-                        event.setCurrentState(tag);
-                        event.setPropKey("TAG");
-                        event.setPrevState("");
-                        eventsServices.addEvent(event, tenantUniqueName);
-                        oldTags.add(tag);
-                    }
+        List<Contact> contacts = findTargetContacts(tenantUniqueName, contactIds, "tags", "attributesToString");
+        Map<String, Integer> tagDeltas = new HashMap<>();
+        List<Event> events = new ArrayList<>();
+        for (String tag : new LinkedHashSet<>(Arrays.asList(tags))) {
+            List<String> updatedIds = new ArrayList<>();
+            for (Contact c : contacts) {
+                if (!c.getTags().contains(tag)) {
+                    Event event = new Event(username, c.getId(), EventState.TAG_ADD);
+                    event.setCurrentState(tag);
+                    event.setPropKey("TAG");
+                    event.setPrevState("");
+                    events.add(event);
+                    c.getTags().add(tag);
+                    updatedIds.add(c.getId());
                 }
-                c.setTags(oldTags);
-                mongoTemplate.save(c, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-                addTags(tenantUniqueName, Arrays.asList(tags));
+            }
+            if (!updatedIds.isEmpty()) {
+                updateContacts(tenantUniqueName, updatedIds, new Update().addToSet("tags", tag));
+                tagDeltas.put(tag, updatedIds.size());
             }
         }
+        contacts.forEach(c -> contactSearchIndex.index(tenantUniqueName, c));
+        eventsServices.addEvents(events, tenantUniqueName);
+        if (!tagDeltas.isEmpty()) {
+            applyTagDeltas(tenantUniqueName, tagDeltas);
+        }
         return "Tags added to contacts successfully";
     }
 
@@ -276,25 +338,32 @@ public class TenantServices {
             throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
         }
 
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-
-        for (Contact c : contacts) {
-            if (contactIds.contains(c.getId())) {
-                List<String> oldTags = c.getTags();
-                for (String tag : tags) {
-                    if (oldTags.contains(tag)) {
-                        Event event = new Event(username, c.getId(), EventState.TAG_REMOVED);
-                        event.setCurrentState("");
-                        event.setPropKey("TAG");
-                        event.setPrevState(tag);
-                        eventsServices.addEvent(event, tenantUniqueName);
-                        oldTags.remove(tag);
-                    }
+        List<Contact> contacts = findTargetContacts(tenantUniqueName, contactIds, "tags", "attributesToString");
+        Map<String, Integer> tagDeltas = new HashMap<>();
+        List<Event> events = new ArrayList<>();
+
+        for (String tag : new LinkedHashSet<>(Arrays.asList(tags))) {
+            List<String> updatedIds = new ArrayList<>();
+            for (Contact c : contacts) {
+                if (c.getTags().contains(tag)) {
+                    Event event = new Event(username, c.getId(), EventState.TAG_REMOVED);
+                    event.setCurrentState("");
+                    event.setPropKey("TAG");
+                    event.setPrevState(tag);
+                    events.add(event);
+                    c.getTags().remove(tag);
+                    updatedIds.add(c.getId());
                 }
-                c.setTags(oldTags);
-                mongoTemplate.save(c, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-                removeTags(tenantUniqueName, Arrays.asList(tags));
             }
+            if (!updatedIds.isEmpty()) {
+                updateContacts(tenantUniqueName, updatedIds, new Update().pull("tags", tag));
+                tagDeltas.put(tag, -updatedIds.size());
+            }
+        }
+        contacts.forEach(c -> contactSearchIndex.index(tenantUniqueName, c));
+        eventsServices.addEvents(events, tenantUniqueName);
+        if (!tagDeltas.isEmpty()) {
+            applyTagDeltas(tenantUniqueName, tagDeltas);
         }
 
         return "Tags removed from contacts successfully";
@@ -310,30 +379,38 @@ public class TenantServices {
         if (tenantUniqueName.isEmpty()) {
             throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
         }
+        checkPropKeys(propData.keySet());
 
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        List<Contact> contacts = findTargetContacts(tenantUniqueName, contactIds, "title", "props");
+        String propKey = propData.keySet().iterator().next();
+        List<Event> events = new ArrayList<>();
 
         for (Contact c : contacts) {
-            if (contactIds.contains(c.getId())) {
-                Map<String, String> oldProps = c.getProps();
-                if (oldProps.containsKey(propData.keySet().iterator().next())) {
-                    Event event = new Event(username, c.getId(), EventState.UPDATED);
-                    event.setPropKey(propData.keySet().iterator().next());
-                    event.setPrevState(oldProps.get(propData.keySet().iterator().next()));
-                    event.setCurrentState(propData.get(propData.keySet().iterator().next()));
-                    eventsServices.addEvent(event, tenantUniqueName);
-                } else {
-                    Event event = new Event(username, c.getId(), EventState.PROP_ADD);
-                    event.setPropKey(propData.keySet().iterator().next());
-                    event.setPrevState("");
-                    event.setCurrentState(propData.get(propData.keySet().iterator().next()));
-                    eventsServices.addEvent(event, tenantUniqueName);
-                }
-                oldProps.putAll(propData);
-                c.setProps(oldProps);
-                mongoTemplate.save(c, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+            Map<String, String> oldProps = c.getProps();
+            if (oldProps.containsKey(propKey)) {
+                Event event = new Event(username, c.getId(), EventState.UPDATED);
+                event.setPropKey(propKey);
+                event.setPrevState(oldProps.get(propKey));
+                event.setCurrentState(propData.get(propKey));
+                events.add(event);
+            } else {
+                Event event = new Event(username, c.getId(), EventState.PROP_ADD);
+                event.setPropKey(propKey);
+                event.setPrevState("");
+                event.setCurrentState(propData.get(propKey));
+                events.add(event);
             }
         }
+        if (!contacts.isEmpty()) {
+            Update update = new Update();
+            propData.forEach((key, value) -> update.set("props." + key, value));
+            updateContacts(tenantUniqueName, contacts.stream().map(Contact::getId).toList(), update);
+        }
+        contacts.forEach(c -> {
+            c.getProps().putAll(propData);
+            duplicateDetector.index(tenantUniqueName, c);
+        });
+        eventsServices.addEvents(events, tenantUniqueName);
 
         return "Props added to contacts successfully";
     }
@@ -348,30 +425,58 @@ public class TenantServices {
         if (tenantUniqueName.isEmpty()) {
             throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
         }
+        checkPropKeys(propsToRemove);
 
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        List<Contact> contacts = findTargetContacts(tenantUniqueName, contactIds, "title", "props");
+        List<Event> events = new ArrayList<>();
 
-        for (Contact c : contacts) {
-            if (contactIds.contains(c.getId())) {
+        for (String prop : new LinkedHashSet<>(propsToRemove)) {
+            List<String> updatedIds = new ArrayList<>();
+            for (Contact c : contacts) {
                 Map<String, String> oldProps = c.getProps();
-                for (String prop : propsToRemove) {
-                    if (oldProps.containsKey(prop)) {
-                        Event event = new Event(username, c.getId(), EventState.PROP_REMOVED);
-                        event.setPropKey(prop);
-                        event.setCurrentState("");
-                        event.setPrevState(oldProps.get(prop));
-                        eventsServices.addEvent(event, tenantUniqueName);
-                        oldProps.remove(prop);
-                    }
+                if (oldProps.containsKey(prop)) {
+                    Event event = new Event(username, c.getId(), EventState.PROP_REMOVED);
+                    event.setPropKey(prop);
+                    event.setCurrentState("");
+                    event.setPrevState(oldProps.get(prop));
+                    events.add(event);
+                    oldProps.remove(prop);
+                    updatedIds.add(c.getId());
                 }
-                c.setProps(oldProps);
-                mongoTemplate.save(c, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+            }
+            if (!updatedIds.isEmpty()) {
+                updateContacts(tenantUniqueName, updatedIds, new Update().unset("props." + prop));
             }
         }
+        contacts.forEach(c -> duplicateDetector.index(tenantUniqueName, c));
+        eventsServices.addEvents(events, tenantUniqueName);
 
         return "Props removed from contacts successfully";
     }
 
+    private List<Contact> findTargetContacts(String tenantUniqueName, List<String> contactIds, String... fields) {
+        Query query = new Query(Criteria.where("_id").in(new HashSet<>(contactIds)));
+        query.fields().include(fields);
+        List<Contact> contacts = mongoTemplate.find(query, Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+        for (Contact c : contacts) {
+            c.setTags(c.getTags() == null ? new ArrayList<>() : new ArrayList<>(c.getTags()));
+            c.setProps(c.getProps() == null ? new HashMap<>() : new HashMap<>(c.getProps()));
+        }
+        return contacts;
+    }
+
+    private void updateContacts(String tenantUniqueName, List<String> contactIds, Update update) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(contactIds)), update, tenantUniqueName + CollectionType.MAIN.getCollectionType());
+    }
+
+    private void checkPropKeys(Collection<String> keys) {
+        for (String key : keys) {
+            if (!isSafeFieldKey(key)) {
+                throw new CustomHttpException("Prop key is not valid: " + key, 400, ExceptionCause.USER_ERROR);
+            }
+        }
+    }
+
 
 
     private Map<String, String> setPredefinedLabels() {
@@ -448,12 +553,4 @@ public class TenantServices {
         }
         return convertToDTO(tenant);
     }
-
-    public int getContactAmount(String tenantUniqueName) {
-        if (tenantUniqueName.isEmpty()) {
-            throw new CustomHttpException("Tenant unique name cannot be empty", 400, ExceptionCause.USER_ERROR);
-        }
-        List<Contact> contacts = mongoTemplate.findAll(Contact.class, tenantUniqueName + CollectionType.MAIN.getCollectionType());
-        return contacts.size();
-    }
 }
@@ -11,6 +11,7 @@ import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.export.ExportContactExcel;
 import com.scm.scm.support.export.ExportContactRequest;
+import com.scm.scm.support.pagination.CursorPage;
 import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.support.security.UserVerifyService;
 import org.junit.jupiter.api.BeforeEach;
@@ -96,6 +97,24 @@ class ContactControllerTests {
         assertEquals(contacts, response.getBody());
     }
 
+    @Test
+    void testGetContactsPage() {
+        String tenantUniqueName = "tenant";
+        String userToken = "Bearer token";
+        CursorPage<ContactDTO> page = CursorPage.<ContactDTO>builder().items(Collections.emptyList()).hasMore(false).build();
+        FirebaseToken mockToken = Mockito.mock(FirebaseToken.class);
+
+        when(mockToken.getEmail()).thenReturn("test@example.com");
+        when(userVerifyService.verifyUserToken(userToken.replace("Bearer ", ""))).thenReturn(mockToken);
+        when(userAccessService.hasAccessToContact(mockToken.getEmail(), tenantUniqueName)).thenReturn(true);
+        when(contactServices.findContactsPage(tenantUniqueName, false, null, 20)).thenReturn(page);
+
+        ResponseEntity<CursorPage<ContactDTO>> response = contactController.getContactsPage(tenantUniqueName, null, 20, userToken);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
     @Test
     void testAddContact() {
         String userToken = "Bearer token";
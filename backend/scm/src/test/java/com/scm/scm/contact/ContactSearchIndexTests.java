@@ -0,0 +1,146 @@
+package com.scm.scm.contact;
+
+import com.scm.scm.contact.services.ContactSearchIndex;
+import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import com.scm.scm.predefinedSearch.vao.SortOrientation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContactSearchIndexTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private ContactSearchIndex contactSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        contactSearchIndex = new ContactSearchIndex(mongoTemplate, true);
+        List<Document> documents = List.of(
+                new Document("_id", "1").append("attributesToString", "john doe john@example.com").append("tags", List.of("vip", "client")),
+                new Document("_id", "2").append("attributesToString", "jane doe jane@example.com").append("tags", List.of("client")),
+                new Document("_id", "3").append("attributesToString", "max mustermann").append("tags", List.of())
+        );
+        lenient().when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenReturn(streamOf(documents));
+    }
+
+    @Test
+    void testSearchOrQuery() {
+        List<String> ids = contactSearchIndex.search(search("john|mustermann", null));
+        assertEquals(List.of("1", "3"), ids);
+    }
+
+    @Test
+    void testSearchAndQuery() {
+        assertEquals(List.of("2"), contactSearchIndex.search(search("doe&jane", null)));
+        assertTrue(contactSearchIndex.search(search("doe&max", null)).isEmpty());
+    }
+
+    @Test
+    void testSearchShortTermAndTagFilter() {
+        assertEquals(List.of("1", "2"), contactSearchIndex.search(search("do", List.of("client"))));
+        assertEquals(List.of("1"), contactSearchIndex.search(search("", List.of("vip", "client"))));
+    }
+
+    @Test
+    void testIndexAndRemoveKeepIndexCurrent() {
+        contactSearchIndex.search(search("doe", null));
+
+        Contact contact = new Contact("4", "Anna", "user", "tenant", "", LocalDateTime.now(), List.of("vip"), new HashMap<>(), "anna doe");
+        contactSearchIndex.index("tenant", contact);
+        contactSearchIndex.remove("tenant", "1");
+
+        assertEquals(List.of("2", "4"), sorted(contactSearchIndex.search(search("doe", null))));
+        assertEquals(List.of("4"), contactSearchIndex.search(search("", List.of("vip"))));
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Document.class), eq("tenant_main"));
+    }
+
+    @Test
+    void testReusedOrdinalsKeepPostingsSorted() {
+        contactSearchIndex.search(search("doe", null));
+
+        contactSearchIndex.remove("tenant", "1");
+        contactSearchIndex.index("tenant", new Contact("5", "Anna", "user", "tenant", "", LocalDateTime.now(), List.of("client"), new HashMap<>(), "anna doe"));
+
+        assertEquals(List.of("5", "2"), contactSearchIndex.search(search("doe", List.of("client"))));
+        assertEquals(List.of("5", "2", "3"), contactSearchIndex.search(search("anna|jane|max", null)));
+        assertEquals(List.of("5"), contactSearchIndex.search(search("doe&anna", null)));
+    }
+
+    @Test
+    void testSearchPastLimitKeepsFirstTitles() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenReturn(streamOf(List.of(
+                new Document("_id", "1").append("title", "Bravo").append("attributesToString", "bravo doe"),
+                new Document("_id", "2").append("title", "Alpha").append("attributesToString", "alpha doe"),
+                new Document("_id", "3").append("title", "Charlie").append("attributesToString", "charlie doe"))));
+
+        assertEquals(List.of("2", "1"), contactSearchIndex.search(search("doe", null), 2));
+        PredefinedSearch descending = new PredefinedSearch("doe", "user", "tenant", "title", null, SortOrientation.DESC);
+        assertEquals(List.of("3", "1"), contactSearchIndex.search(descending, 2));
+        assertEquals(List.of("1", "2", "3"), contactSearchIndex.search(search("doe", null), 3));
+    }
+
+    @Test
+    void testInvalidateRebuildsIndex() {
+        contactSearchIndex.search(search("doe", null));
+        contactSearchIndex.invalidate("tenant");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenReturn(streamOf(List.of()));
+
+        assertTrue(contactSearchIndex.search(search("doe", null)).isEmpty());
+    }
+
+    @Test
+    void testUpdatesDuringBuildAreReplayed() {
+        Contact contact = new Contact("4", "Anna", "user", "tenant", "", LocalDateTime.now(), List.of(), new HashMap<>(), "anna doe");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenAnswer(invocation -> {
+            contactSearchIndex.index("tenant", contact);
+            contactSearchIndex.remove("tenant", "2");
+            return streamOf(List.of(
+                    new Document("_id", "1").append("attributesToString", "john doe"),
+                    new Document("_id", "2").append("attributesToString", "jane doe")));
+        });
+
+        assertEquals(List.of("1", "4"), sorted(contactSearchIndex.search(search("doe", null))));
+    }
+
+    @Test
+    void testFailedBuildIsRetried() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main")))
+                .thenThrow(new IllegalStateException("cursor failed"))
+                .thenReturn(streamOf(List.of(new Document("_id", "1").append("attributesToString", "john doe"))));
+
+        assertThrows(IllegalStateException.class, () -> contactSearchIndex.search(search("doe", null)));
+        assertEquals(List.of("1"), contactSearchIndex.search(search("doe", null)));
+    }
+
+    private PredefinedSearch search(String query, List<String> filter) {
+        return new PredefinedSearch(query, "user", "tenant", "title", filter, SortOrientation.ASC);
+    }
+
+    private List<String> sorted(List<String> ids) {
+        List<String> copy = new ArrayList<>(ids);
+        Collections.sort(copy);
+        return copy;
+    }
+
+    private Stream<Document> streamOf(List<Document> documents) {
+        return documents.stream();
+    }
+}
@@ -0,0 +1,83 @@
+package com.scm.scm.contact;
+
+import com.scm.scm.contact.services.ContactSearchQueryBuilder;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import com.scm.scm.predefinedSearch.vao.SortOrientation;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContactSearchQueryBuilderTests {
+
+    @Test
+    void testSplitTermsAnd() {
+        assertEquals(Arrays.asList("john", "doe"), ContactSearchQueryBuilder.splitTerms("john&doe"));
+        assertTrue(ContactSearchQueryBuilder.isAndQuery("john&doe"));
+    }
+
+    @Test
+    void testSplitTermsOr() {
+        assertEquals(Arrays.asList("john", "doe"), ContactSearchQueryBuilder.splitTerms("john|doe"));
+        assertFalse(ContactSearchQueryBuilder.isAndQuery("john|doe"));
+    }
+
+    @Test
+    void testBuildSort() {
+        assertEquals(Sort.Direction.DESC, ContactSearchQueryBuilder.buildSort(SortOrientation.DESC).getOrderFor("title").getDirection());
+        assertEquals(Sort.Direction.ASC, ContactSearchQueryBuilder.buildSort(SortOrientation.ASC).getOrderFor("title").getDirection());
+    }
+
+    @Test
+    void testBuildAndQueryWithFilter() {
+        PredefinedSearch search = new PredefinedSearch("john&doe", "user", "tenant", "title", List.of("tag1"), SortOrientation.ASC);
+
+        Query query = ContactSearchQueryBuilder.build(search);
+        Document queryObject = query.getQueryObject();
+
+        assertTrue(queryObject.containsKey("$and"));
+        assertTrue(queryObject.containsKey("tags"));
+        assertEquals(1, query.getSortObject().getInteger("title"));
+        assertEquals(ContactSearchQueryBuilder.MAX_RESULTS, query.getLimit());
+        assertEquals(0, ContactSearchQueryBuilder.build(search, 0).getLimit());
+    }
+
+    @Test
+    void testBuildOrQueryWithoutFilter() {
+        PredefinedSearch search = new PredefinedSearch("john|doe", "user", "tenant", "title", null, SortOrientation.DESC);
+
+        Query query = ContactSearchQueryBuilder.build(search);
+        Document queryObject = query.getQueryObject();
+
+        assertTrue(queryObject.containsKey("$or"));
+        assertFalse(queryObject.containsKey("tags"));
+        assertEquals(-1, query.getSortObject().getInteger("title"));
+    }
+
+    @Test
+    void testBuildQuotesRegexCharacters() {
+        PredefinedSearch search = new PredefinedSearch("a.b", "user", "tenant", "title", null, SortOrientation.ASC);
+
+        Query query = ContactSearchQueryBuilder.build(search);
+
+        assertTrue(query.getQueryObject().get("attributesToString").toString().contains("\\Qa.b\\E"));
+    }
+
+    @Test
+    void testTermsLowercasedOnceAndMatchedCaseSensitively() {
+        PredefinedSearch search = new PredefinedSearch("John", "user", "tenant", "title", null, SortOrientation.ASC);
+
+        Query query = ContactSearchQueryBuilder.build(search);
+        Pattern pattern = (Pattern) query.getQueryObject().get("attributesToString");
+
+        assertEquals(List.of("john", "doe"), ContactSearchQueryBuilder.splitTerms("John&DOE"));
+        assertEquals("\\Qjohn\\E", pattern.pattern());
+        assertEquals(0, pattern.flags() & Pattern.CASE_INSENSITIVE);
+    }
+}
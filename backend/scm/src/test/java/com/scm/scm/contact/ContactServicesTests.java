@@ -1,25 +1,48 @@
 package com.scm.scm.contact;
 
 
+import com.mongodb.bulk.BulkWriteError;
+import com.scm.scm.contact.dto.BulkContactResponseDTO;
+import com.scm.scm.contact.dto.BulkContactResultDTO;
 import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.dto.DuplicateGroupDTO;
+import com.scm.scm.contact.services.ContactSearchIndex;
 import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.contact.services.DuplicateDetector;
 import com.scm.scm.contact.services.EventsCheck;
+import com.scm.scm.contact.vao.BulkContactStatus;
 import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.contact.vao.DuplicateMatchKey;
 import com.scm.scm.events.services.EventsServices;
+import com.scm.scm.events.vao.Event;
+import com.scm.scm.events.vao.EventState;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
 import com.scm.scm.predefinedSearch.vao.SortOrientation;
+import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.pagination.CursorPage;
+import com.scm.scm.support.pagination.PageCursor;
 import com.scm.scm.tenant.dto.TenantDTO;
 import com.scm.scm.tenant.services.TenantServices;
+import org.bson.BsonDocument;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -48,6 +71,12 @@ class ContactServicesTests {
     @Mock
     private EventsCheck eventsCheck;
 
+    @Mock
+    private ContactSearchIndex contactSearchIndex;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
     @InjectMocks
     private ContactServices contactServices;
 
@@ -99,6 +128,58 @@ class ContactServicesTests {
         verify(mongoTemplate, times(1)).findAll(eq(Contact.class), anyString());
     }
 
+    @Test
+    void testFindContactsPage() {
+        contact1.setId("1");
+        contact2.setId("2");
+        Contact contact3 = new Contact("3", "Title3", "user1", "tenantUniqueName", "Comments3", LocalDateTime.now(), new ArrayList<>(), new HashMap<>(), "AttributesToString");
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(new ArrayList<>(Arrays.asList(contact1, contact2, contact3)));
+
+        CursorPage<ContactDTO> result = contactServices.findContactsPage("tenantUniqueName", false, null, 2);
+
+        assertEquals(2, result.getItems().size());
+        assertTrue(result.isHasMore());
+        PageCursor nextCursor = PageCursor.decode(result.getNextCursor());
+        assertEquals("2", nextCursor.getId());
+        assertEquals(contact2.getCreatedAt(), nextCursor.getTime());
+    }
+
+    @Test
+    void testFindContactsPageWithoutCreatedAt() {
+        contact1.setId("1");
+        contact1.setCreatedAt(null);
+        contact2.setId("2");
+        contact2.setCreatedAt(null);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(new ArrayList<>(Arrays.asList(contact1, contact2)));
+
+        CursorPage<ContactDTO> result = contactServices.findContactsPage("tenantUniqueName", false, null, 1);
+
+        PageCursor nextCursor = PageCursor.decode(result.getNextCursor());
+        assertNull(nextCursor.getTime());
+        assertEquals("1", nextCursor.getId());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        contactServices.findContactsPage("tenantUniqueName", false, result.getNextCursor(), 1);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(Contact.class), eq("tenantUniqueName_main"));
+        Document criteria = query.getAllValues().get(1).getQueryObject();
+        assertEquals(List.of(new Document("createdAt", new Document("$ne", null)), new Document("createdAt", null).append("_id", new Document("$gt", "1"))), criteria.get("$or"));
+    }
+
+    @Test
+    void testFindContactsPageLastPage() {
+        contact1.setId("1");
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_deleted"))).thenReturn(new ArrayList<>(List.of(contact1)));
+
+        CursorPage<ContactDTO> result = contactServices.findContactsPage("tenantUniqueName", true, new PageCursor(LocalDateTime.now(), "0").encode(), 2);
+
+        assertEquals(1, result.getItems().size());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+    }
+
     @Test
     void testCreateContact() {
         when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
@@ -111,6 +192,18 @@ class ContactServicesTests {
         verify(mongoTemplate, times(1)).save(any(Contact.class), anyString());
     }
 
+    @Test
+    void testCreateContactFlagsDuplicateFromIndex() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.findById(anyString(), eq(Contact.class), anyString())).thenReturn(null);
+        when(duplicateDetector.hasDuplicate(eq("tenantUniqueName"), any(Contact.class))).thenReturn(true);
+
+        contactServices.createContact(contactDTO, "username", false);
+
+        verify(eventsServices, times(1)).addEvent(argThat(event -> event.getEventState() == EventState.DUPLICATED), eq("tenantUniqueName"));
+        verify(duplicateDetector, times(1)).index(eq("tenantUniqueName"), any(Contact.class));
+    }
+
     @Test
     void testUpdateContact() {
         when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
@@ -169,4 +262,199 @@ class ContactServicesTests {
         assertNotNull(result);
         assertInstanceOf(Comparator.class, result);
     }
+
+    @Test
+    void testSaveAllContactsInBatches() {
+        ReflectionTestUtils.setField(contactServices, "importBatchSize", 2);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        Map<String, String> props = new HashMap<>();
+        props.put("email", "test@example.com");
+        List<ContactDTO> contacts = List.of(
+                new ContactDTO("", "Title1", "user1", "tenantUniqueName", "", LocalDateTime.now().toString(), List.of("Tag1"), props, ""),
+                new ContactDTO("", "Title2", "user1", "tenantUniqueName", "", LocalDateTime.now().toString(), List.of("Tag1", "Tag2"), new HashMap<>(), ""),
+                new ContactDTO("", "Title3", "user1", "tenantUniqueName", "", LocalDateTime.now().toString(), List.of(), new HashMap<>(), ""));
+
+        contactServices.saveAllContacts(contacts);
+
+        verify(mongoTemplateService, times(1)).collectionExists("tenantUniqueName_main");
+        verify(mongoTemplate, times(2)).insert(anyCollection(), eq("tenantUniqueName_main"));
+        verify(tenantServices, times(1)).applyTagDeltas("tenantUniqueName", Map.of("Tag1", 2, "Tag2", 1));
+        verify(tenantServices, times(1)).addLabels("tenantUniqueName", Set.of("email"));
+        verify(eventsServices, times(2)).addEvents(anyList(), eq("tenantUniqueName"));
+        verify(eventsServices, never()).addEvent(any(), anyString());
+    }
+
+    @Test
+    void testSaveAllContactsValidatesBeforeWriting() {
+        List<ContactDTO> contacts = List.of(
+                new ContactDTO("", "Title1", "user1", "tenantUniqueName", "", LocalDateTime.now().toString(), List.of(), new HashMap<>(), ""),
+                new ContactDTO("", "", "user1", "tenantUniqueName", "", LocalDateTime.now().toString(), List.of(), new HashMap<>(), ""));
+
+        assertThrows(CustomHttpException.class, () -> contactServices.saveAllContacts(contacts));
+        verify(mongoTemplate, never()).insert(anyCollection(), anyString());
+    }
+
+    @Test
+    void testDeleteMultipleContactsMovesInBulk() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of(contact1, contact2));
+
+        String result = contactServices.deleteMultipleContacts("tenantUniqueName", List.of("id1", "id2", "missing"), "user1");
+
+        assertEquals("Contacts deleted successfully from tenantUniqueName_main collection", result);
+        verify(mongoTemplate, never()).findById(anyString(), eq(Contact.class), anyString());
+        verify(mongoTemplate, times(1)).insert(List.of(contact1, contact2), "tenantUniqueName_deleted");
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("tenantUniqueName_main"));
+        verify(tenantServices, times(1)).applyTagDeltas("tenantUniqueName", Map.of("Tag1", -2, "Tag2", -2));
+        verify(tenantServices, never()).removeTags(anyString(), anyList());
+        verify(eventsServices, times(1)).addEvents(argThat(events -> events.size() == 2), eq("tenantUniqueName"));
+    }
+
+    @Test
+    void testDeleteMultipleContactsNotFound() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), anyString())).thenReturn(List.of());
+
+        assertThrows(CustomHttpException.class, () -> contactServices.deleteMultipleContacts("tenantUniqueName", List.of("missing"), "user1"));
+        verify(mongoTemplate, never()).insert(anyCollection(), anyString());
+    }
+
+    @Test
+    void testFindDuplicatesHydratesGroupsInOneQuery() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(duplicateDetector.detect(eq("tenantUniqueName"), anySet(), eq(false))).thenReturn(List.of(new DuplicateDetector.Group("title1", DuplicateMatchKey.TITLE, List.of("id1", "id2"))));
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of(contact1, contact2));
+
+        Map<String, List<ContactDTO>> duplicates = contactServices.findDuplicateContactsByTitleAndEmail("tenantUniqueName");
+
+        assertEquals(List.of("id1", "id2"), duplicates.get("title1").stream().map(ContactDTO::getId).toList());
+        verify(mongoTemplate, never()).findAll(eq(Contact.class), anyString());
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Contact.class), anyString());
+    }
+
+    @Test
+    void testFindDuplicateGroupsPage() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(duplicateDetector.detect(eq("tenantUniqueName"), anySet(), eq(true))).thenReturn(List.of(
+                new DuplicateDetector.Group("a@example.com", DuplicateMatchKey.EMAIL, List.of("id1", "id2")),
+                new DuplicateDetector.Group("title1", DuplicateMatchKey.TITLE, List.of("id3", "id4"))));
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of(contact1, contact2));
+
+        CursorPage<DuplicateGroupDTO> page = contactServices.findDuplicateGroupsPage("tenantUniqueName", Set.of(DuplicateMatchKey.EMAIL), true, null, 1);
+
+        assertTrue(page.isHasMore());
+        assertEquals(1, page.getItems().size());
+        assertEquals(DuplicateMatchKey.EMAIL, page.getItems().getFirst().getMatchKey());
+        assertEquals(2, page.getItems().getFirst().getContacts().size());
+
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of());
+        CursorPage<DuplicateGroupDTO> next = contactServices.findDuplicateGroupsPage("tenantUniqueName", Set.of(DuplicateMatchKey.EMAIL), true, page.getNextCursor(), 1);
+
+        assertFalse(next.isHasMore());
+        assertEquals("title1", next.getItems().getFirst().getKey());
+    }
+
+    @Test
+    void testStreamContactDocumentsAppliesProjectionAndFilters() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenantUniqueName_main"))).thenReturn(Stream.of(new Document("_id", "id1")));
+        PredefinedSearch search = PredefinedSearch.builder().onTenant("tenantUniqueName").searchQuery("john").filter(List.of("vip")).build();
+
+        try (Stream<Document> documents = contactServices.streamContactDocuments(search, List.of("id", "title", "props.email"))) {
+            assertEquals(1, documents.count());
+        }
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(captor.capture(), eq(Document.class), eq("tenantUniqueName_main"));
+        assertEquals(new Document("_id", 1).append("title", 1).append("props.email", 1), captor.getValue().getFieldsObject());
+        assertNotNull(captor.getValue().getQueryObject().get("tags"));
+        assertThrows(CustomHttpException.class, () -> contactServices.streamContactDocuments(search, List.of("props.$where")));
+    }
+
+    @Test
+    void testBulkCreateContactsReportsEveryRow() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("tenantUniqueName_main"))).thenReturn(List.of(new Document("_id", "existing")));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class, "tenantUniqueName_main")).thenReturn(bulkOperations);
+        List<ContactDTO> contacts = List.of(
+                ContactDTO.builder().title("Ana").tags(List.of("Tag1")).props(Map.of("email", "ana@example.com")).build(),
+                ContactDTO.builder().title("").build(),
+                ContactDTO.builder().id("existing").title("Janez").build(),
+                ContactDTO.builder().id("new1").title("Kos").tenantUniqueName("tenantUniqueName").build(),
+                ContactDTO.builder().id("new1").title("Kos").build(),
+                ContactDTO.builder().title("Novak").tenantUniqueName("otherTenant").build());
+
+        BulkContactResponseDTO response = contactServices.bulkCreateContacts("tenantUniqueName", contacts, "user1");
+
+        assertEquals(2, response.getCreated());
+        assertEquals(4, response.getFailed());
+        assertEquals(List.of(BulkContactStatus.CREATED, BulkContactStatus.VALIDATION_ERROR, BulkContactStatus.DUPLICATE_ID,
+                BulkContactStatus.CREATED, BulkContactStatus.DUPLICATE_ID, BulkContactStatus.VALIDATION_ERROR),
+                response.getResults().stream().map(BulkContactResultDTO::getStatus).toList());
+        assertEquals("new1", response.getResults().get(3).getId());
+        verify(mongoTemplateService, times(1)).collectionExists("tenantUniqueName_main");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Contact>> captor = ArgumentCaptor.forClass(List.class);
+        verify(bulkOperations, times(1)).insert(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("user1", captor.getValue().getFirst().getUser());
+        verify(bulkOperations, times(1)).execute();
+        verify(tenantServices, times(1)).applyTagDeltas("tenantUniqueName", Map.of("Tag1", 1));
+        verify(tenantServices, times(1)).addLabels("tenantUniqueName", Set.of("email"));
+        verify(eventsServices, times(1)).addEvents(argThat(events -> events.size() == 2), eq("tenantUniqueName"));
+    }
+
+    @Test
+    void testBulkCreateContactsMapsWriteErrors() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)));
+        when(bulkOperations.execute()).thenThrow(exception);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class, "tenantUniqueName_main")).thenReturn(bulkOperations);
+        List<ContactDTO> contacts = List.of(
+                ContactDTO.builder().id("raced").title("Ana").build(),
+                ContactDTO.builder().title("Janez").build());
+
+        BulkContactResponseDTO response = contactServices.bulkCreateContacts("tenantUniqueName", contacts, "user1");
+
+        assertEquals(BulkContactStatus.DUPLICATE_ID, response.getResults().get(0).getStatus());
+        assertEquals(BulkContactStatus.CREATED, response.getResults().get(1).getStatus());
+        verify(contactSearchIndex, times(1)).index(eq("tenantUniqueName"), any(Contact.class));
+        verify(eventsServices, times(1)).addEvents(argThat(events -> events.size() == 1), eq("tenantUniqueName"));
+    }
+
+    @Test
+    void testBulkCreateContactsFailsChunkOnDataAccessError() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("connection lost"));
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class, "tenantUniqueName_main")).thenReturn(bulkOperations);
+        List<ContactDTO> contacts = List.of(ContactDTO.builder().title("Ana").build(), ContactDTO.builder().title("Janez").build());
+
+        BulkContactResponseDTO response = contactServices.bulkCreateContacts("tenantUniqueName", contacts, "user1");
+
+        assertEquals(0, response.getCreated());
+        assertEquals(List.of(BulkContactStatus.FAILED, BulkContactStatus.FAILED), response.getResults().stream().map(BulkContactResultDTO::getStatus).toList());
+        verifyNoInteractions(eventsServices);
+    }
+
+    @Test
+    void testBulkCreateContactsMarksDuplicatesWithinRequest() {
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Contact.class, "tenantUniqueName_main")).thenReturn(bulkOperations);
+        List<ContactDTO> contacts = List.of(
+                ContactDTO.builder().title("Ana").props(Map.of("email", "ana@example.com")).build(),
+                ContactDTO.builder().title("Ana Kos").props(Map.of("email", "ANA@example.com")).build(),
+                ContactDTO.builder().title("Janez").build());
+
+        contactServices.bulkCreateContacts("tenantUniqueName", contacts, "user1");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Event>> captor = ArgumentCaptor.forClass(List.class);
+        verify(eventsServices).addEvents(captor.capture(), eq("tenantUniqueName"));
+        assertEquals(List.of(EventState.CREATED, EventState.DUPLICATED, EventState.CREATED), captor.getValue().stream().map(Event::getEventState).toList());
+    }
 }
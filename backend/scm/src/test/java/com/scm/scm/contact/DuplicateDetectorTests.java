@@ -0,0 +1,118 @@
+package com.scm.scm.contact;
+
+import com.scm.scm.contact.services.DuplicateDetector;
+import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.contact.vao.DuplicateMatchKey;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DuplicateDetectorTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private DuplicateDetector duplicateDetector;
+
+    @BeforeEach
+    void setUp() {
+        duplicateDetector = new DuplicateDetector(mongoTemplate, false, 5, 2);
+        List<Document> documents = List.of(
+                contact("1", "John Doe", "john@example.com", "+386 40 123 456"),
+                contact("2", "john  doe ", null, null),
+                contact("3", "J. Doe", "JOHN@example.com", null),
+                contact("4", "Jane Smith", "jane@example.com", "040123456"),
+                contact("5", "Jane Smyth", null, "040/123-456"),
+                contact("6", "Max Mustermann", null, null)
+        );
+        lenient().when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenAnswer(invocation -> documents.stream());
+    }
+
+    @Test
+    void testGroupsLinkedThroughTitleAndEmail() {
+        List<DuplicateDetector.Group> groups = duplicateDetector.detect("tenant", EnumSet.of(DuplicateMatchKey.TITLE, DuplicateMatchKey.EMAIL), false);
+
+        assertEquals(1, groups.size());
+        assertEquals(DuplicateMatchKey.EMAIL, groups.getFirst().matchKey());
+        assertEquals("john@example.com", groups.getFirst().key());
+        assertEquals(List.of("1", "2", "3"), groups.getFirst().contactIds());
+    }
+
+    @Test
+    void testPhoneKeyComparesDigitsOnly() {
+        List<DuplicateDetector.Group> groups = duplicateDetector.detect("tenant", EnumSet.of(DuplicateMatchKey.PHONE), false);
+
+        assertEquals(1, groups.size());
+        assertEquals("040123456", groups.getFirst().key());
+        assertEquals(List.of("4", "5"), groups.getFirst().contactIds());
+    }
+
+    @Test
+    void testFuzzyMatchesNeighbouringNames() {
+        List<DuplicateDetector.Group> groups = duplicateDetector.detect("tenant", EnumSet.of(DuplicateMatchKey.EMAIL), true);
+
+        assertEquals(2, groups.size());
+        assertEquals(List.of("1", "2", "3"), groups.get(0).contactIds());
+        assertEquals(DuplicateMatchKey.NAME, groups.get(1).matchKey());
+        assertEquals(List.of("4", "5"), groups.get(1).contactIds());
+    }
+
+    @Test
+    void testIndexIsBuiltOnceAndKeptCurrent() {
+        DuplicateDetector indexed = new DuplicateDetector(mongoTemplate, true, 5, 2);
+        assertEquals(1, indexed.detect("tenant", EnumSet.of(DuplicateMatchKey.TITLE), false).size());
+
+        Contact renamed = Contact.builder().id("2").title("Johnny").props(new HashMap<>()).build();
+        indexed.index("tenant", renamed);
+        assertTrue(indexed.detect("tenant", EnumSet.of(DuplicateMatchKey.TITLE), false).isEmpty());
+
+        Contact created = Contact.builder().id("7").title("Max  Mustermann").props(new HashMap<>()).build();
+        assertTrue(indexed.hasDuplicate("tenant", created));
+        indexed.index("tenant", created);
+        indexed.remove("tenant", "6");
+        assertFalse(indexed.hasDuplicate("tenant", created));
+
+        verify(mongoTemplate, times(1)).stream(any(Query.class), eq(Document.class), eq("tenant_main"));
+    }
+
+    @Test
+    void testIndexUpdatesDuringBuildAreReplayed() {
+        DuplicateDetector indexed = new DuplicateDetector(mongoTemplate, true, 5, 2);
+        Contact created = Contact.builder().id("7").title("Max Mustermann").props(new HashMap<>()).build();
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("tenant_main"))).thenAnswer(invocation -> {
+            indexed.index("tenant", created);
+            return Stream.of(contact("6", "Max Mustermann", null, null));
+        });
+
+        List<DuplicateDetector.Group> groups = indexed.detect("tenant", EnumSet.of(DuplicateMatchKey.TITLE), false);
+
+        assertEquals(List.of("6", "7"), groups.getFirst().contactIds());
+    }
+
+    private static Document contact(String id, String title, String email, String phone) {
+        Document props = new Document();
+        if (email != null) {
+            props.append("email", email);
+        }
+        if (phone != null) {
+            props.append("phoneNumber", phone);
+        }
+        return new Document("_id", id).append("title", title).append("props", props);
+    }
+}
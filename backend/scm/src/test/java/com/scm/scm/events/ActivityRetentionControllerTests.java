@@ -0,0 +1,88 @@
+package com.scm.scm.events;
+
+import com.google.firebase.auth.FirebaseToken;
+import com.scm.scm.config.FirebaseConfig;
+import com.scm.scm.events.rest.EventsController;
+import com.scm.scm.events.services.ActivityRetentionServices;
+import com.scm.scm.events.services.EventsServices;
+import com.scm.scm.events.vao.ActivityRetention;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.security.UserAccessService;
+import com.scm.scm.support.security.UserVerifyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class ActivityRetentionControllerTests {
+
+    @Autowired
+    private EventsController eventsController;
+
+    @MockBean
+    private EventsServices eventsServices;
+
+    @MockBean
+    private ActivityRetentionServices activityRetentionServices;
+
+    @MockBean
+    private UserAccessService userAccessService;
+
+    @MockBean
+    private UserVerifyService userVerifyService;
+
+    @MockBean
+    private FirebaseConfig firebaseConfig;
+
+    private final String userToken = "Bearer token";
+
+    @BeforeEach
+    void init() {
+        FirebaseToken mockToken = Mockito.mock(FirebaseToken.class);
+        when(mockToken.getEmail()).thenReturn("test@example.com");
+        when(userVerifyService.verifyUserToken("token")).thenReturn(mockToken);
+        // Member of whatever tenant a tenantId header would name; only the path tenant may count.
+        when(userAccessService.hasAccessToTenant(anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    void testGetRetention() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("tenant").maxAgeDays(30).build();
+        when(userAccessService.hasAccessToContact("test@example.com", "tenant")).thenReturn(true);
+        when(activityRetentionServices.getRetention("tenant")).thenReturn(retention);
+
+        ResponseEntity<ActivityRetention> response = eventsController.getRetention("tenant", userToken);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(retention, response.getBody());
+    }
+
+    @Test
+    void testUpdateRetentionOfAnotherTenantIsForbidden() {
+        ActivityRetention retention = ActivityRetention.builder().maxEvents(1).build();
+        when(userAccessService.hasAccessToContact("test@example.com", "otherTenant")).thenReturn(false);
+
+        CustomHttpException exception = assertThrows(CustomHttpException.class, () -> eventsController.updateRetention("otherTenant", userToken, retention));
+
+        assertEquals(403, exception.getHttpStatusCode());
+        verify(activityRetentionServices, never()).updateRetention(anyString(), any());
+    }
+
+    @Test
+    void testGetRetentionOfAnotherTenantIsForbidden() {
+        when(userAccessService.hasAccessToContact("test@example.com", "otherTenant")).thenReturn(false);
+
+        assertThrows(CustomHttpException.class, () -> eventsController.getRetention("otherTenant", userToken));
+        verify(activityRetentionServices, never()).getRetention(anyString());
+    }
+}
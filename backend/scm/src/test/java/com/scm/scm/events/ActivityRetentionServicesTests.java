@@ -0,0 +1,166 @@
+package com.scm.scm.events;
+
+import com.mongodb.client.result.DeleteResult;
+import com.scm.scm.events.dao.ActivityRetentionRepository;
+import com.scm.scm.events.services.ActivityRetentionServices;
+import com.scm.scm.events.vao.ActivityRetention;
+import com.scm.scm.events.vao.Event;
+import com.scm.scm.events.vao.EventState;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ActivityRetentionServicesTests {
+
+    @Mock
+    private ActivityRetentionRepository activityRetentionRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private MongoTemplateService mongoTemplateService;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    @InjectMocks
+    private ActivityRetentionServices activityRetentionServices;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+        when(mongoTemplate.remove(any(Query.class), anyString())).thenReturn(DeleteResult.acknowledged(0));
+    }
+
+    @Test
+    void testUpdateRetentionCreatesTtlIndex() {
+        ActivityRetention retention = ActivityRetention.builder().maxAgeDays(90).ttlIndex(true).build();
+
+        activityRetentionServices.updateRetention("tenant", retention);
+
+        verify(activityRetentionRepository, times(1)).save(retention);
+        verify(mongoTemplate, times(1)).indexOps("tenant_activity");
+        verify(indexOperations, times(1)).ensureIndex(any(Index.class));
+        assertEquals("tenant", retention.getTenantUniqueName());
+    }
+
+    @Test
+    void testUpdateRetentionRejectsTtlWithArchive() {
+        ActivityRetention retention = ActivityRetention.builder().maxAgeDays(90).ttlIndex(true).archive(true).build();
+
+        assertThrows(CustomHttpException.class, () -> activityRetentionServices.updateRetention("tenant", retention));
+        verify(activityRetentionRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnforceArchivesBeforeRemoving() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("tenant").maxAgeDays(30).archive(true).build();
+        AtomicReference<String> run = tagRun(List.of());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tenant_activity"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(summary("2026-01", "CREATED", 4), summary("2026-01", "DELETED", 1)), new Document()));
+
+        activityRetentionServices.enforce(retention);
+
+        verify(mongoTemplate, times(1)).upsert(argThat(query -> query.getQueryObject().toJson().contains(run.get())), any(Update.class), eq("tenant_activity_archive"));
+        verify(mongoTemplate, times(1)).remove(argThat(query -> query.getQueryObject().toJson().contains(run.get())), eq("tenant_activity"));
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("tenant_activity"));
+    }
+
+    @Test
+    void testEnforceFinishesAbandonedRunWithoutCountingItTwice() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("tenant").maxAgeDays(30).archive(true).build();
+        tagRun(List.of("1-abandoned"));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tenant_activity"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(summary("2026-01", "CREATED", 4)), new Document()));
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq("tenant_activity_archive"))).thenThrow(new DuplicateKeyException("E11000"));
+
+        activityRetentionServices.enforce(retention);
+
+        verify(mongoTemplate, times(2)).remove(any(Query.class), eq("tenant_activity"));
+        verify(mongoTemplate, times(1)).remove(argThat(query -> query.getQueryObject().toJson().contains("1-abandoned")), eq("tenant_activity"));
+    }
+
+    @Test
+    void testEnforceLeavesRecentRunOfAnotherInstance() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("tenant").maxAgeDays(30).archive(true).build();
+        String otherRun = System.currentTimeMillis() + "-other";
+        AtomicReference<String> run = tagRun(List.of(otherRun));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tenant_activity"), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        activityRetentionServices.enforce(retention);
+
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("tenant_activity"));
+        verify(mongoTemplate, times(1)).remove(argThat(query -> query.getQueryObject().toJson().contains(run.get())), eq("tenant_activity"));
+    }
+
+    @Test
+    void testEnforceMaxEventsWithoutArchive() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("tenant").maxEvents(100).build();
+        Event boundary = new Event("id", "user1", "contact1", EventState.CREATED, "", "", "", LocalDateTime.now().minusDays(1));
+        when(mongoTemplate.findOne(any(Query.class), eq(Event.class), eq("tenant_activity"))).thenReturn(boundary);
+
+        activityRetentionServices.enforce(retention);
+
+        verify(mongoTemplate, never()).aggregate(any(Aggregation.class), anyString(), eq(Document.class));
+        verify(mongoTemplate, times(1)).remove(any(Query.class), eq("tenant_activity"));
+    }
+
+    @Test
+    void testEnforceDropsPolicyOfRemovedTenant() {
+        ActivityRetention retention = ActivityRetention.builder().tenantUniqueName("gone").maxAgeDays(30).build();
+        when(mongoTemplateService.collectionExists("gone_activity")).thenReturn(false);
+
+        activityRetentionServices.enforce(retention);
+
+        verify(activityRetentionRepository, times(1)).delete(retention);
+        verify(mongoTemplate, never()).remove(any(Query.class), anyString());
+    }
+
+    private AtomicReference<String> tagRun(List<String> pendingRuns) {
+        AtomicReference<String> run = new AtomicReference<>();
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq("tenant_activity"))).thenAnswer(invocation -> {
+            run.set(invocation.<Update>getArgument(1).getUpdateObject().get("$set", Document.class).getString("archiveRun"));
+            return null;
+        });
+        when(mongoTemplate.findDistinct(any(Query.class), eq("archiveRun"), eq("tenant_activity"), eq(String.class))).thenAnswer(invocation -> {
+            List<String> runs = new ArrayList<>(pendingRuns);
+            runs.add(run.get());
+            return runs;
+        });
+        return run;
+    }
+
+    private Document summary(String month, String eventState, int count) {
+        return new Document("_id", new Document("month", month).append("eventState", eventState))
+                .append("count", count)
+                .append("firstEventTime", new Date())
+                .append("lastEventTime", new Date());
+    }
+}
@@ -0,0 +1,136 @@
+package com.scm.scm.events;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.scm.scm.events.services.EventWriteBehind;
+import com.scm.scm.events.vao.Event;
+import com.scm.scm.events.vao.EventState;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EventWriteBehindTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private EventWriteBehind eventWriteBehind;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Event.class), anyString())).thenReturn(bulkOperations);
+        eventWriteBehind = new EventWriteBehind(mongoTemplate, true, 2, 100, 0, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventWriteBehind.shutdown();
+    }
+
+    @Test
+    void testDisabledWriterDoesNotQueue() {
+        EventWriteBehind disabled = new EventWriteBehind(mongoTemplate, false, 2, 100, 0, 2);
+
+        assertFalse(disabled.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED)));
+        disabled.shutdown();
+        verify(bulkOperations, never()).execute();
+    }
+
+    @Test
+    void testFlushWritesQueuedEventsInOneInsert() {
+        assertTrue(eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED)));
+        assertTrue(eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.UPDATED)));
+        verify(bulkOperations, never()).execute();
+
+        eventWriteBehind.flushAll();
+
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.UNORDERED, Event.class, "tenant_activity");
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void testFullQueueFlushesOnCallerThread() {
+        eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED));
+        eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.UPDATED));
+
+        assertTrue(eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.TAG_ADD)));
+
+        verify(bulkOperations, times(1)).execute();
+        eventWriteBehind.shutdown();
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void testFailedFlushRequeuesBatch() {
+        eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED));
+        doThrow(new RuntimeException("write failed")).doReturn(null).when(bulkOperations).execute();
+
+        eventWriteBehind.flushAll();
+        eventWriteBehind.flushAll();
+
+        verify(bulkOperations, times(2)).execute();
+        eventWriteBehind.flushAll();
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void testPartialFailureRequeuesOnlyUnwrittenEvents() {
+        Event duplicate = new Event("user1", "contact1", EventState.CREATED);
+        Event failed = new Event("user1", "contact1", EventState.UPDATED);
+        eventWriteBehind.enqueue("tenant", duplicate);
+        eventWriteBehind.enqueue("tenant", failed);
+        List<List<Event>> batches = new ArrayList<>();
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>(invocation.<List<Event>>getArgument(0)));
+            return bulkOperations;
+        });
+        BulkOperationException exception = mock(BulkOperationException.class);
+        when(exception.getErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        doThrow(exception).doReturn(null).when(bulkOperations).execute();
+
+        eventWriteBehind.flushAll();
+        eventWriteBehind.flushAll();
+
+        assertEquals(List.of(List.of(duplicate, failed), List.of(failed)), batches);
+    }
+
+    @Test
+    void testEventIsDroppedAfterMaxAttempts() {
+        eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED));
+        doThrow(new RuntimeException("write failed")).when(bulkOperations).execute();
+
+        eventWriteBehind.flushAll();
+        eventWriteBehind.flushAll();
+        eventWriteBehind.flushAll();
+
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void testDiscardDropsQueuedEvents() {
+        eventWriteBehind.enqueue("tenant", new Event("user1", "contact1", EventState.CREATED));
+
+        eventWriteBehind.discard("tenant");
+        eventWriteBehind.flushAll();
+
+        verify(bulkOperations, never()).execute();
+    }
+}
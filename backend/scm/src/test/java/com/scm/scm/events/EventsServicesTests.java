@@ -1,29 +1,36 @@
 package com.scm.scm.events;
 
 
+import com.scm.scm.events.dto.EventFilter;
+import com.scm.scm.events.services.EventWriteBehind;
 import com.scm.scm.events.services.EventsServices;
 import com.scm.scm.events.vao.Event;
 import com.scm.scm.events.vao.EventState;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.pagination.CursorPage;
+import com.scm.scm.support.pagination.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
 
 @SpringBootTest
 class EventsServicesTests {
 
-    @InjectMocks
     private EventsServices eventsServices;
 
     @Mock
@@ -32,6 +39,9 @@ class EventsServicesTests {
     @Mock
     private MongoTemplateService mongoTemplateService;
 
+    @Mock
+    private EventWriteBehind eventWriteBehind;
+
     private Event event;
 
     @BeforeEach
@@ -39,6 +49,7 @@ class EventsServicesTests {
         try (AutoCloseable ac = MockitoAnnotations.openMocks(this)) {
             event = new Event("id", "user1", "contact1", EventState.CREATED, "propKey", "prevState", "currentState", LocalDateTime.now());
         }
+        eventsServices = new EventsServices(mongoTemplate, mongoTemplateService, eventWriteBehind);
     }
 
     /**@Test
@@ -84,6 +95,28 @@ class EventsServicesTests {
         assertThrows(CustomHttpException.class, () -> eventsServices.addEvent(event, "nonExistentTenantUniqueName"));
     }
 
+    @Test
+    void shouldAddEventsInOneInsert() {
+        Event second = new Event("user1", "contact2", EventState.CREATED);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+
+        eventsServices.addEvents(List.of(event, second), "tenantUniqueName");
+
+        verify(mongoTemplateService, times(1)).collectionExists("tenantUniqueName_activity");
+        verify(mongoTemplate, times(1)).insert(anyCollection(), eq("tenantUniqueName_activity"));
+        assertNotNull(second.getId());
+        assertNotNull(second.getEventTime());
+    }
+
+    @Test
+    void shouldRejectInvalidEventInBatch() {
+        Event invalid = new Event("", "contact2", EventState.CREATED);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+
+        assertThrows(CustomHttpException.class, () -> eventsServices.addEvents(List.of(event, invalid), "tenantUniqueName"));
+        verify(mongoTemplate, never()).insert(anyCollection(), anyString());
+    }
+
     /**@Test
     void shouldGetAllEventsForContact() {
         when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
@@ -102,6 +135,91 @@ class EventsServicesTests {
         assertEquals(event, events.getFirst());
     }*/
 
+    @Test
+    void shouldQueryEventsForContactByIndex() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Event.class), eq("tenantUniqueName_activity"))).thenReturn(List.of(event));
+
+        List<Event> events = eventsServices.getAllEventsForContact("contact1", "tenantUniqueName");
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Event.class), eq("tenantUniqueName_activity"));
+        verify(mongoTemplate, never()).findAll(any(), anyString());
+        assertEquals("contact1", captor.getValue().getQueryObject().get("contact"));
+        assertEquals(List.of(event), events);
+    }
+
+    @Test
+    void shouldPageEventsForContact() {
+        Event older = new Event("id0", "user1", "contact1", EventState.UPDATED, "", "", "", event.getEventTime().minusMinutes(1));
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Event.class), anyString())).thenReturn(new ArrayList<>(List.of(event, older)));
+
+        CursorPage<Event> page = eventsServices.getEventsForContactPage("contact1", "tenantUniqueName", event.getEventTime().minusDays(1), null, null, 1);
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Event.class), eq("tenantUniqueName_activity"));
+        assertEquals(2, captor.getValue().getLimit());
+        assertNotNull(captor.getValue().getQueryObject().get("$and"));
+        assertTrue(page.isHasMore());
+        assertEquals(List.of(event), page.getItems());
+        assertEquals(new PageCursor(event.getEventTime(), event.getId()).encode(), page.getNextCursor());
+    }
+
+    @Test
+    void shouldQueueEventWhenWriteBehindEnabled() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(eventWriteBehind.enqueue("tenantUniqueName", event)).thenReturn(true);
+
+        eventsServices.addEvent(event, "tenantUniqueName");
+
+        verify(eventWriteBehind, times(1)).enqueue("tenantUniqueName", event);
+        verify(mongoTemplate, never()).save(any(), anyString());
+    }
+
+    @Test
+    void shouldInsertEventsThatWereNotQueued() {
+        Event queued = new Event("user1", "contact1", EventState.CREATED);
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(eventWriteBehind.enqueue("tenantUniqueName", queued)).thenReturn(true);
+        when(eventWriteBehind.enqueue("tenantUniqueName", event)).thenReturn(false);
+
+        eventsServices.addEvents(List.of(queued, event), "tenantUniqueName");
+
+        verify(mongoTemplate, times(1)).insert(List.of(event), "tenantUniqueName_activity");
+    }
+
+    @Test
+    void shouldFilterEventsForTenantPage() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.find(any(Query.class), eq(Event.class), anyString())).thenReturn(new ArrayList<>(List.of(event)));
+        EventFilter filter = EventFilter.builder().user("user1").states(List.of(EventState.CREATED, EventState.DELETED)).build();
+
+        CursorPage<Event> page = eventsServices.getEventsForTenantPage("tenantUniqueName", filter, null, null);
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Event.class), eq("tenantUniqueName_activity"));
+        List<?> conditions = (List<?>) captor.getValue().getQueryObject().get("$and");
+        assertEquals(2, conditions.size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(List.of(event), page.getItems());
+    }
+
+    @Test
+    void shouldStreamAllEventsForTenantWithoutFilter() {
+        when(mongoTemplateService.collectionExists(anyString())).thenReturn(true);
+        when(mongoTemplate.stream(any(Query.class), eq(Event.class), anyString())).thenReturn(Stream.of(event));
+
+        try (Stream<Event> events = eventsServices.streamEventsForTenant("tenantUniqueName", new EventFilter())) {
+            assertEquals(List.of(event), events.toList());
+        }
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(captor.capture(), eq(Event.class), eq("tenantUniqueName_activity"));
+        assertTrue(captor.getValue().getQueryObject().isEmpty());
+    }
+
     @Test
     void shouldThrowExceptionWhenTenantUniqueNameIsEmptyForGetAllEventsForContact() {
         assertThrows(CustomHttpException.class, () -> eventsServices.getAllEventsForContact("contact1", ""));
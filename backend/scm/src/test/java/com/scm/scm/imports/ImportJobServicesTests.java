@@ -0,0 +1,186 @@
+package com.scm.scm.imports;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.imports.dao.ImportJobRepository;
+import com.scm.scm.imports.services.ImportJobServices;
+import com.scm.scm.imports.vao.ImportFormat;
+import com.scm.scm.imports.vao.ImportJob;
+import com.scm.scm.imports.vao.ImportJobStatus;
+import com.scm.scm.support.ImportContactExcel;
+import com.scm.scm.support.ImportContactJson;
+import com.scm.scm.support.ParallelContactMapper;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.support.exceptions.ExceptionCause;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ImportJobServicesTests {
+
+    private static final String CONTACTS = """
+            [{"title": "Janez"}, {"title": "Ana"}, {"title": "Kos"}]
+            """;
+
+    @Mock
+    private ImportJobRepository importJobRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ContactServices contactServices;
+
+    @Mock
+    private ImportContactExcel importContactExcel;
+
+    @TempDir
+    Path storageDir;
+
+    private ImportJobServices importJobServices;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ImportContactJson importContactJson = new ImportContactJson(contactServices, new ObjectMapper(), new ParallelContactMapper(2), 2);
+        importJobServices = new ImportJobServices(importJobRepository, mongoTemplate, contactServices, importContactExcel, importContactJson, storageDir.toString(), "node1", 60000, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importJobServices.shutdown();
+    }
+
+    @Test
+    void testSubmitRunsJobInBackground() {
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.json", "application/json", CONTACTS.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = importJobServices.submit(file, ImportFormat.JSON, "user1", "tenantUniqueName");
+
+        assertEquals("contacts.json", job.getFileName());
+        verify(contactServices, timeout(2000).times(2)).saveAllContacts(anyList());
+        verify(importJobRepository, timeout(2000).times(5)).save(job);
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsParsed());
+        assertEquals(3, job.getRowsInserted());
+        assertEquals(0, job.getRowsFailed());
+        assertFalse(Files.exists(Path.of(job.getStoredFile())));
+    }
+
+    @Test
+    void testResumeSkipsCommittedRows() throws IOException {
+        Path storedFile = Files.writeString(storageDir.resolve("job1"), CONTACTS);
+        ImportJob job = ImportJob.builder().id("job1").tenantUniqueName("tenantUniqueName").user("user1").format(ImportFormat.JSON)
+                .storedFile(storedFile.toString()).status(ImportJobStatus.RUNNING).rowsParsed(2).rowsInserted(2).build();
+        when(importJobRepository.findByStatusInOrderByCreatedAtAsc(anyCollection())).thenReturn(List.of(job));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ImportJob.class))).thenReturn(job);
+
+        importJobServices.resumeUnfinishedJobs();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ContactDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contactServices, timeout(2000).times(1)).saveAllContacts(captor.capture());
+        assertEquals(List.of("Kos"), captor.getValue().stream().map(ContactDTO::getTitle).toList());
+        verify(importJobRepository, timeout(2000).times(3)).save(job);
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(3, job.getRowsParsed());
+        assertEquals(3, job.getRowsInserted());
+    }
+
+    @Test
+    void testRejectedChunkCountsAsFailed() {
+        doThrow(new CustomHttpException("Contact title is empty", 400, ExceptionCause.USER_ERROR))
+                .doNothing()
+                .when(contactServices).saveAllContacts(anyList());
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.json", "application/json", CONTACTS.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = importJobServices.submit(file, ImportFormat.JSON, "user1", "tenantUniqueName");
+
+        verify(importJobRepository, timeout(2000).times(5)).save(job);
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertEquals(2, job.getRowsFailed());
+        assertEquals(1, job.getRowsInserted());
+    }
+
+    @Test
+    void testResumeFailsJobWithoutFile() {
+        ImportJob job = ImportJob.builder().id("job1").format(ImportFormat.JSON)
+                .storedFile(storageDir.resolve("missing").toString()).status(ImportJobStatus.QUEUED).build();
+        when(importJobRepository.findByStatusInOrderByCreatedAtAsc(anyCollection())).thenReturn(List.of(job));
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ImportJob.class))).thenReturn(job);
+
+        importJobServices.resumeUnfinishedJobs();
+
+        assertEquals(ImportJobStatus.FAILED, job.getStatus());
+        verify(importJobRepository, times(1)).save(job);
+        verifyNoInteractions(contactServices);
+    }
+
+    @Test
+    void testResumeSkipsJobLeasedByAnotherInstance() throws IOException {
+        Path storedFile = Files.writeString(storageDir.resolve("job1"), CONTACTS);
+        ImportJob job = ImportJob.builder().id("job1").format(ImportFormat.JSON).storedFile(storedFile.toString()).status(ImportJobStatus.RUNNING)
+                .owner("node2").leaseExpiresAt(LocalDateTime.now().plusMinutes(1)).build();
+        when(importJobRepository.findByStatusInOrderByCreatedAtAsc(anyCollection())).thenReturn(List.of(job));
+
+        importJobServices.resumeUnfinishedJobs();
+
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(ImportJob.class));
+        verify(importJobRepository, never()).save(any(ImportJob.class));
+        verifyNoInteractions(contactServices);
+    }
+
+    @Test
+    void testResumeSkipsJobClaimedConcurrently() throws IOException {
+        Path storedFile = Files.writeString(storageDir.resolve("job1"), CONTACTS);
+        ImportJob job = ImportJob.builder().id("job1").format(ImportFormat.JSON).storedFile(storedFile.toString()).status(ImportJobStatus.RUNNING)
+                .owner("node2").leaseExpiresAt(LocalDateTime.now().minusMinutes(1)).build();
+        when(importJobRepository.findByStatusInOrderByCreatedAtAsc(anyCollection())).thenReturn(List.of(job));
+
+        importJobServices.resumeUnfinishedJobs();
+
+        verify(importJobRepository, never()).save(any(ImportJob.class));
+        verifyNoInteractions(contactServices);
+    }
+
+    @Test
+    void testSubmitRequiresJobsDir() {
+        ImportJobServices unconfigured = new ImportJobServices(importJobRepository, mongoTemplate, contactServices, importContactExcel, null, "", "node1", 60000, 1, 10);
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.json", "application/json", CONTACTS.getBytes(StandardCharsets.UTF_8));
+
+        CustomHttpException exception = assertThrows(CustomHttpException.class, () -> unconfigured.submit(file, ImportFormat.JSON, "user1", "tenantUniqueName"));
+        assertEquals(503, exception.getHttpStatusCode());
+        unconfigured.shutdown();
+        verifyNoInteractions(importJobRepository);
+    }
+
+    @Test
+    void testGetJobNotFound() {
+        when(importJobRepository.findById("job1")).thenReturn(Optional.empty());
+
+        CustomHttpException exception = assertThrows(CustomHttpException.class, () -> importJobServices.getJob("job1"));
+        assertEquals(404, exception.getHttpStatusCode());
+    }
+}
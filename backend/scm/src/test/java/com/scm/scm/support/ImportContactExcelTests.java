@@ -0,0 +1,86 @@
+package com.scm.scm.support;
+
+import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.services.ContactServices;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ImportContactExcelTests {
+
+    @Mock
+    private ContactServices contactServices;
+
+    private ImportContactExcel importContactExcel;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importContactExcel = new ImportContactExcel(contactServices, new ParallelContactMapper(2), 2);
+    }
+
+    @Test
+    void testImportContactsInBatches() throws IOException {
+        MockMultipartFile file = workbook(new String[][]{
+                {"Ime", "Priimek", "Elektronski naslov", "VIP"},
+                {"Janez", "Novak", "janez@example.com", "VIP"},
+                {"Ana", "", "ana@example.com", ""},
+                {"", "Kos", "", ""}
+        });
+
+        importContactExcel.importContactsFromExcel(file, "user1", "tenantUniqueName");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ContactDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contactServices, times(2)).saveAllContacts(captor.capture());
+        List<ContactDTO> imported = new ArrayList<>();
+        captor.getAllValues().forEach(imported::addAll);
+
+        assertEquals(3, imported.size());
+        assertEquals("Janez Novak", imported.get(0).getTitle());
+        assertEquals("janez@example.com", imported.get(0).getProps().get("email"));
+        assertEquals(List.of("VIP"), imported.get(0).getTags());
+        assertEquals("Ana", imported.get(1).getTitle());
+        assertEquals("Kos", imported.get(2).getTitle());
+        assertEquals("tenantUniqueName", imported.get(2).getTenantUniqueName());
+    }
+
+    @Test
+    void testImportContactsInvalidFile() {
+        MockMultipartFile file = new MockMultipartFile("file", "contacts.xlsx", null, "not a workbook".getBytes());
+
+        assertThrows(IOException.class, () -> importContactExcel.importContactsFromExcel(file, "user1", "tenantUniqueName"));
+        verify(contactServices, never()).saveAllContacts(anyList());
+    }
+
+    private MockMultipartFile workbook(String[][] rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < rows.length; i++) {
+                Row row = sheet.createRow(i);
+                for (int j = 0; j < rows[i].length; j++) {
+                    if (!rows[i][j].isEmpty()) {
+                        row.createCell(j).setCellValue(rows[i][j]);
+                    }
+                }
+            }
+            workbook.write(out);
+            return new MockMultipartFile("file", "contacts.xlsx", null, out.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.scm.scm.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scm.scm.contact.dto.ContactDTO;
+import com.scm.scm.contact.services.ContactServices;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ImportContactJsonTests {
+
+    @Mock
+    private ContactServices contactServices;
+
+    private ImportContactJson importContactJson;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importContactJson = new ImportContactJson(contactServices, new ObjectMapper(), new ParallelContactMapper(2), 2);
+    }
+
+    @Test
+    void testImportContactsInBatches() throws IOException {
+        MockMultipartFile file = json("""
+                [
+                  {"title": "Janez Novak", "props": {"elektronskiNaslov": "janez@example.com"}, "attrs": ["VIP"]},
+                  {"props": {"ime": "Ana"}},
+                  {"props": {"priimek": "Kos"}}
+                ]
+                """);
+
+        importContactJson.importContactsFromJson(file, "user1", "tenantUniqueName");
+
+        List<ContactDTO> imported = captureSaved(2);
+        assertEquals(3, imported.size());
+        assertEquals("Janez Novak", imported.get(0).getTitle());
+        assertEquals("janez@example.com", imported.get(0).getProps().get("email"));
+        assertEquals(List.of("VIP"), imported.get(0).getTags());
+        assertEquals("Ana", imported.get(1).getTitle());
+        assertEquals("Kos", imported.get(2).getTitle());
+        assertEquals("tenantUniqueName", imported.get(2).getTenantUniqueName());
+    }
+
+    @Test
+    void testImportSingleContactObject() throws IOException {
+        importContactJson.importContactsFromJson(json("{\"title\": \"Janez\"}"), "user1", "tenantUniqueName");
+
+        List<ContactDTO> imported = captureSaved(1);
+        assertEquals(1, imported.size());
+        assertEquals("Janez", imported.getFirst().getTitle());
+    }
+
+    @Test
+    void testImportRegistrationArray() throws IOException {
+        MockMultipartFile file = json("""
+                [
+                  {"type": "student", "firstName": "Ana", "lastName": "Kos", "email": "ana@example.com"},
+                  {"type": "student", "firstName": "Janez", "lastName": "Novak"}
+                ]
+                """);
+
+        importContactJson.importRegistrationContactsFromJson(file, "user1", "tenantUniqueName");
+
+        List<ContactDTO> imported = captureSaved(1);
+        assertEquals(List.of("Ana Kos", "Janez Novak"), imported.stream().map(ContactDTO::getTitle).toList());
+    }
+
+    @Test
+    void testImportRegistrationStreamsParticipants() throws IOException {
+        MockMultipartFile file = json("""
+                {"type": "group", "companyName": "Podjetje", "contact": {"firstName": "Eva"},
+                 "participants": [
+                   {"firstName": "Ana", "lastName": "Kos", "workshops": ["A", "None"]},
+                   {"firstName": "Janez", "lastName": "Novak"},
+                   {"firstName": "Marko", "lastName": "Horvat"}
+                 ],
+                 "note": "ignored"}
+                """);
+
+        importContactJson.importRegistrationContactsFromJson(file, "user1", "tenantUniqueName");
+
+        List<ContactDTO> imported = captureSaved(2);
+        assertEquals(List.of("Ana Kos", "Janez Novak", "Marko Horvat"), imported.stream().map(ContactDTO::getTitle).toList());
+        assertEquals("Podjetje", imported.get(2).getProps().get("companyName"));
+        assertEquals("Eva", imported.get(2).getProps().get("contactFirstName"));
+        assertEquals(List.of("A"), imported.getFirst().getTags());
+    }
+
+    @Test
+    void testImportRegistrationRejectsSharedFieldAfterParticipants() {
+        MockMultipartFile file = json("""
+                {"type": "regular", "participants": [{"firstName": "Ana"}], "companyName": "Podjetje"}
+                """);
+
+        assertThrows(IOException.class, () -> importContactJson.importRegistrationContactsFromJson(file, "user1", "tenantUniqueName"));
+    }
+
+    @Test
+    void testImportRegistrationRejectsMissingType() {
+        MockMultipartFile file = json("{\"firstName\": \"Ana\"}");
+
+        assertThrows(IOException.class, () -> importContactJson.importRegistrationContactsFromJson(file, "user1", "tenantUniqueName"));
+        verify(contactServices, never()).saveAllContacts(anyList());
+    }
+
+    @Test
+    void testMalformedJsonFailsImport() {
+        MockMultipartFile file = json("[{\"title\": \"Janez\"}, {\"title\": ");
+
+        assertThrows(IOException.class, () -> importContactJson.importContactsFromJson(file, "user1", "tenantUniqueName"));
+        verify(contactServices, never()).saveAllContacts(anyList());
+    }
+
+    private List<ContactDTO> captureSaved(int batches) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ContactDTO>> captor = ArgumentCaptor.forClass(List.class);
+        verify(contactServices, times(batches)).saveAllContacts(captor.capture());
+        List<ContactDTO> imported = new ArrayList<>();
+        captor.getAllValues().forEach(imported::addAll);
+        return imported;
+    }
+
+    private MockMultipartFile json(String content) {
+        return new MockMultipartFile("file", "contacts.json", "application/json", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
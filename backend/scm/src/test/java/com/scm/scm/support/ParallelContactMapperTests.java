@@ -0,0 +1,67 @@
+package com.scm.scm.support;
+
+import com.scm.scm.contact.dto.ContactDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelContactMapperTests {
+
+    private final ParallelContactMapper parallelContactMapper = new ParallelContactMapper(4);
+
+    @AfterEach
+    void tearDown() {
+        parallelContactMapper.shutdown();
+    }
+
+    @Test
+    void testBatchesReachSinkInSubmissionOrder() throws IOException {
+        List<List<ContactDTO>> written = new ArrayList<>();
+        int total;
+        try (ParallelContactMapper.OrderedBatchWriter<Integer> writer = parallelContactMapper.writer(row -> {
+            Thread.sleep(10L * (10 - row));
+            return List.of(contact("Contact " + row));
+        }, written::add)) {
+            for (int row = 0; row < 10; row += 2) {
+                writer.submit(List.of(row, row + 1));
+            }
+            total = writer.finish();
+        }
+
+        assertEquals(10, total);
+        assertEquals(5, written.size());
+        List<String> titles = written.stream().flatMap(List::stream).map(ContactDTO::getTitle).toList();
+        for (int row = 0; row < 10; row++) {
+            assertEquals("Contact " + row, titles.get(row));
+        }
+    }
+
+    @Test
+    void testMappingFailureStopsWriter() throws IOException {
+        List<List<ContactDTO>> written = new ArrayList<>();
+        try (ParallelContactMapper.OrderedBatchWriter<Integer> writer = parallelContactMapper.writer(row -> {
+            if (row == 2) {
+                throw new IOException("Bad row");
+            }
+            return List.of(contact("Contact " + row));
+        }, written::add)) {
+            writer.submit(List.of(0, 1));
+            writer.submit(List.of(2, 3));
+            IOException exception = assertThrows(IOException.class, writer::finish);
+            assertEquals("Bad row", exception.getMessage());
+        }
+
+        assertEquals(1, written.size());
+    }
+
+    private ContactDTO contact(String title) {
+        ContactDTO contact = new ContactDTO();
+        contact.setTitle(title);
+        return contact;
+    }
+}
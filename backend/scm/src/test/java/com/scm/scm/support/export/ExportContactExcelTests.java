@@ -4,6 +4,8 @@ import com.scm.scm.config.FirebaseConfig;
 import com.scm.scm.contact.dto.ContactDTO;
 import com.scm.scm.contact.services.ContactServices;
 import com.scm.scm.support.security.UserVerifyService;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
@@ -12,10 +14,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
@@ -63,4 +70,33 @@ class ExportContactExcelTests {
 
         assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testExportContactsStream() throws Exception {
+        ContactDTO contact1 = new ContactDTO("1", "Title1", "User1", "Tenant", "Comments1", "2022-01-01", List.of("Tag1"), Map.of("email", "one@example.com"), "Attributes1");
+        ContactDTO contact2 = new ContactDTO("2", "Title2", "User2", "Tenant", "Comments2", "2022-01-02", List.of("Tag2"), Collections.emptyMap(), "Attributes2");
+        when(contactServices.streamContacts("Tenant", List.of())).thenAnswer(invocation -> Stream.of(contact1, contact2));
+
+        ResponseEntity<StreamingResponseBody> response = exportContactExcel.exportContactsStream("Tenant", List.of());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Objects.requireNonNull(response.getBody()).writeTo(out);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(3, sheet.getPhysicalNumberOfRows());
+            assertEquals("email", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("one@example.com", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("Tag2", sheet.getRow(2).getCell(3).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testExportContactsStreamNoContacts() {
+        when(contactServices.streamContacts("Tenant", List.of("1"))).thenAnswer(invocation -> Stream.empty());
+
+        ResponseEntity<StreamingResponseBody> response = exportContactExcel.exportContactsStream("Tenant", List.of("1"));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+    }
+}
@@ -0,0 +1,81 @@
+package com.scm.scm.support.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scm.scm.contact.services.ContactServices;
+import com.scm.scm.predefinedSearch.vao.PredefinedSearch;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExportContactJsonTests {
+
+    @Mock
+    private ContactServices contactServices;
+
+    private ExportContactJson exportContactJson;
+
+    private final PredefinedSearch search = PredefinedSearch.builder().onTenant("tenant").build();
+
+    @BeforeEach
+    void setUp() {
+        exportContactJson = new ExportContactJson(contactServices, new ObjectMapper());
+        lenient().when(contactServices.streamContactDocuments(any(PredefinedSearch.class), eq(List.of("title")))).thenReturn(Stream.of(
+                new Document("_id", "1").append("title", "John"),
+                new Document("_id", "2").append("title", "Jane").append("_class", "com.scm.scm.contact.vao.Contact")));
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = exportContactJson.exportContactsStream(search, List.of("title"), true);
+
+        assertEquals(ExportContactJson.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("{\"id\":\"1\",\"title\":\"John\"}\n{\"id\":\"2\",\"title\":\"Jane\"}\n", write(response));
+    }
+
+    @Test
+    void testExportJsonArray() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = exportContactJson.exportContactsStream(search, List.of("title"), false);
+
+        assertEquals("[{\"id\":\"1\",\"title\":\"John\"},{\"id\":\"2\",\"title\":\"Jane\"}]", write(response));
+    }
+
+    @Test
+    void testExportDecodesStringsAndFormatsCreatedAt() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30);
+        Date stored = Date.from(createdAt.atZone(ZoneId.systemDefault()).toInstant());
+        when(contactServices.streamContactDocuments(any(PredefinedSearch.class), eq(List.of()))).thenReturn(Stream.of(
+                new Document("_id", "3").append("title", "Tom &amp; Jerry").append("createdAt", stored)
+                        .append("tags", List.of("R&amp;D")).append("props", new Document("na&lt;me", "&quot;x&quot;"))));
+
+        String json = write(exportContactJson.exportContactsStream(search, List.of(), true));
+
+        assertEquals("{\"id\":\"3\",\"title\":\"Tom & Jerry\",\"createdAt\":\"" + createdAt + "\",\"tags\":[\"R&D\"],\"props\":{\"na<me\":\"\\\"x\\\"\"}}\n", json);
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Objects.requireNonNull(response.getBody()).writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -6,6 +6,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -16,6 +20,9 @@ class MongoTemplateServiceTests {
     @Mock
     private MongoTemplate mongoTemplate;
 
+    @Mock
+    private IndexOperations indexOperations;
+
     @InjectMocks
     private MongoTemplateService mongoTemplateService;
 
@@ -23,12 +30,14 @@ class MongoTemplateServiceTests {
     void testCreateNewTenantCollections() {
         String tenantUniqueName = "tenant";
         when(mongoTemplate.createCollection(anyString())).thenReturn(null);
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
 
         assertTrue(mongoTemplateService.createNewTenantCollections(tenantUniqueName));
 
         verify(mongoTemplate, times(1)).createCollection(tenantUniqueName + CollectionType.MAIN.getCollectionType());
         verify(mongoTemplate, times(1)).createCollection(tenantUniqueName + CollectionType.DELETED.getCollectionType());
         verify(mongoTemplate, times(1)).createCollection(tenantUniqueName + CollectionType.ACTIVITY.getCollectionType());
+        verify(indexOperations, atLeast(2)).ensureIndex(any(IndexDefinition.class));
     }
 
     @Test
@@ -47,4 +56,47 @@ class MongoTemplateServiceTests {
         assertTrue(mongoTemplateService.collectionExists(collectionName));
         verify(mongoTemplate, times(1)).collectionExists(collectionName);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testCollectionExistsAnsweredFromRegistry() {
+        String collectionName = "collection";
+        when(mongoTemplate.collectionExists(collectionName)).thenReturn(true);
+
+        assertTrue(mongoTemplateService.collectionExists(collectionName));
+        assertTrue(mongoTemplateService.collectionExists(collectionName));
+        verify(mongoTemplate, times(1)).collectionExists(collectionName);
+    }
+
+    @Test
+    void testDropTenantCollectionsClearsRegistry() {
+        String tenantUniqueName = "tenant";
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+        mongoTemplateService.createNewTenantCollections(tenantUniqueName);
+
+        assertTrue(mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType()));
+        verify(mongoTemplate, never()).collectionExists(anyString());
+
+        mongoTemplateService.dropTenantCollections(tenantUniqueName);
+
+        assertFalse(mongoTemplateService.collectionExists(tenantUniqueName + CollectionType.MAIN.getCollectionType()));
+        verify(mongoTemplate, times(CollectionType.values().length)).dropCollection(anyString());
+    }
+
+    @Test
+    void testReconcileCollections() {
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of("tenant_main", "tenant_deleted", "tenant_activity"));
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+
+        mongoTemplateService.reconcileCollections();
+
+        assertTrue(mongoTemplateService.collectionExists("tenant_activity"));
+        verify(mongoTemplate, never()).collectionExists(anyString());
+        verify(mongoTemplate, times(1)).indexOps("tenant_main");
+
+        when(mongoTemplate.getCollectionNames()).thenReturn(Set.of());
+        mongoTemplateService.reconcileCollections();
+
+        assertFalse(mongoTemplateService.collectionExists("tenant_activity"));
+        verify(mongoTemplate, times(1)).indexOps("tenant_main");
+    }
+}
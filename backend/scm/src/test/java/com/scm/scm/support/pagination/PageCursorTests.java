@@ -0,0 +1,44 @@
+package com.scm.scm.support.pagination;
+
+import com.scm.scm.support.exceptions.CustomHttpException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTests {
+
+    @Test
+    void testEncodeDecode() {
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000);
+        PageCursor cursor = new PageCursor(time, "contact-123|x");
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(time, decoded.getTime());
+        assertEquals("contact-123|x", decoded.getId());
+    }
+
+    @Test
+    void testEncodeDecodeWithoutTime() {
+        PageCursor decoded = PageCursor.decode(new PageCursor(null, "contact-123").encode());
+
+        assertNull(decoded.getTime());
+        assertEquals("contact-123", decoded.getId());
+    }
+
+    @Test
+    void testDecodeInvalidCursor() {
+        assertThrows(CustomHttpException.class, () -> PageCursor.decode("not a cursor"));
+        assertThrows(CustomHttpException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    @Test
+    void testResolvePageSize() {
+        assertEquals(CursorPage.DEFAULT_PAGE_SIZE, CursorPage.resolvePageSize(null));
+        assertEquals(CursorPage.DEFAULT_PAGE_SIZE, CursorPage.resolvePageSize(0));
+        assertEquals(10, CursorPage.resolvePageSize(10));
+        assertEquals(CursorPage.MAX_PAGE_SIZE, CursorPage.resolvePageSize(100_000));
+    }
+}
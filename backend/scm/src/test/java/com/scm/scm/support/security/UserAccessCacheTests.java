@@ -0,0 +1,115 @@
+package com.scm.scm.support.security;
+
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.tenant.dao.TenantRepository;
+import com.scm.scm.tenant.vao.Tenant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAccessCacheTests {
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    private Tenant tenant;
+
+    @BeforeEach
+    void setUp() {
+        tenant = new Tenant("1", null, "TEN-May-24-1", null, null, false, Arrays.asList("user1", "user2"), null, null, null);
+    }
+
+    @Test
+    void testMembershipIsCachedAcrossLookups() {
+        when(tenantRepository.findUsersById("1")).thenReturn(Optional.of(tenant));
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, Clock.systemUTC());
+
+        assertTrue(userAccessService.hasAccessToTenant("user1", "1"));
+        assertFalse(userAccessService.hasAccessToTenant("user3", "1"));
+        assertTrue(userAccessService.hasAccessToContact("user2", "TEN-May-24-1"));
+
+        verify(tenantRepository, times(1)).findUsersById("1");
+        verify(tenantRepository, never()).findUsersByTenantUniqueName(anyString());
+    }
+
+    @Test
+    void testEvictTenantReloadsMembership() {
+        when(tenantRepository.findUsersByTenantUniqueName("TEN-May-24-1")).thenReturn(tenant);
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, Clock.systemUTC());
+
+        assertFalse(userAccessService.hasAccessToContact("user3", "TEN-May-24-1"));
+        tenant.setUsers(Arrays.asList("user1", "user3"));
+        userAccessService.evictTenant("1", "TEN-May-24-1");
+
+        assertTrue(userAccessService.hasAccessToContact("user3", "TEN-May-24-1"));
+        verify(tenantRepository, times(2)).findUsersByTenantUniqueName("TEN-May-24-1");
+    }
+
+    @Test
+    void testExpiredMembershipIsReloaded() {
+        when(tenantRepository.findUsersById("1")).thenReturn(Optional.of(tenant));
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L, 30_000L, 61_000L, 61_000L);
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, clock);
+
+        userAccessService.hasAccessToTenant("user1", "1");
+        userAccessService.hasAccessToTenant("user1", "1");
+        userAccessService.hasAccessToTenant("user1", "1");
+
+        verify(tenantRepository, times(2)).findUsersById("1");
+    }
+
+    @Test
+    void testEvictionDuringLoadIsNotOverwritten() {
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, Clock.systemUTC());
+        when(tenantRepository.findUsersById("1")).thenAnswer(invocation -> {
+            userAccessService.evictTenant("1", "TEN-May-24-1");
+            return Optional.of(tenant);
+        });
+
+        userAccessService.hasAccessToTenant("user1", "1");
+        userAccessService.hasAccessToTenant("user1", "1");
+
+        verify(tenantRepository, times(2)).findUsersById("1");
+    }
+
+    @Test
+    void testNullUsersAreIgnored() {
+        tenant.setUsers(Arrays.asList("user1", null));
+        when(tenantRepository.findUsersById("1")).thenReturn(Optional.of(tenant));
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, Clock.systemUTC());
+
+        assertTrue(userAccessService.hasAccessToTenant("user1", "1"));
+        assertFalse(userAccessService.hasAccessToTenant("user2", "1"));
+    }
+
+    @Test
+    void testZeroTtlDisablesCache() {
+        when(tenantRepository.findUsersById("1")).thenReturn(Optional.of(tenant));
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 0, Clock.systemUTC());
+
+        userAccessService.hasAccessToTenant("user1", "1");
+        userAccessService.hasAccessToTenant("user1", "1");
+
+        verify(tenantRepository, times(2)).findUsersById("1");
+    }
+
+    @Test
+    void testTenantNotFound() {
+        when(tenantRepository.findUsersById("2")).thenReturn(Optional.empty());
+        UserAccessService userAccessService = new UserAccessService(tenantRepository, 60, Clock.systemUTC());
+
+        assertThrows(CustomHttpException.class, () -> userAccessService.hasAccessToTenant("user1", "2"));
+        assertThrows(CustomHttpException.class, () -> userAccessService.hasAccessToTenant("", "1"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.scm.scm.support.security;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseToken;
+import com.scm.scm.support.exceptions.CustomHttpException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UserVerifyServiceTests {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00Z");
+
+    private MockedStatic<FirebaseAuth> firebaseAuthStatic;
+    private FirebaseAuth firebaseAuth;
+    private FirebaseToken firebaseToken;
+
+    @BeforeEach
+    void setUp() {
+        firebaseAuth = mock(FirebaseAuth.class);
+        firebaseToken = mock(FirebaseToken.class);
+        when(firebaseToken.getClaims()).thenReturn(Map.of("exp", NOW.getEpochSecond() + 3600));
+        firebaseAuthStatic = mockStatic(FirebaseAuth.class);
+        firebaseAuthStatic.when(FirebaseAuth::getInstance).thenReturn(firebaseAuth);
+    }
+
+    @AfterEach
+    void tearDown() {
+        firebaseAuthStatic.close();
+    }
+
+    @Test
+    void testVerifyUserTokenIsCached() throws Exception {
+        when(firebaseAuth.verifyIdToken("token")).thenReturn(firebaseToken);
+        UserVerifyService userVerifyService = new UserVerifyService(10, 0, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertSame(firebaseToken, userVerifyService.verifyUserToken("token"));
+        assertSame(firebaseToken, userVerifyService.verifyUserToken("token"));
+
+        verify(firebaseAuth, times(1)).verifyIdToken("token");
+        assertEquals(1, userVerifyService.getCacheHits());
+        assertEquals(1, userVerifyService.getCacheMisses());
+        assertEquals(1, userVerifyService.getCacheSize());
+    }
+
+    @Test
+    void testExpiredTokenIsVerifiedAgain() throws Exception {
+        MutableClock clock = new MutableClock(NOW);
+        when(firebaseAuth.verifyIdToken("token")).thenReturn(firebaseToken);
+        UserVerifyService userVerifyService = new UserVerifyService(10, 0, clock);
+
+        userVerifyService.verifyUserToken("token");
+        clock.instant = NOW.plusSeconds(3601);
+        userVerifyService.verifyUserToken("token");
+
+        verify(firebaseAuth, times(2)).verifyIdToken("token");
+        assertEquals(0, userVerifyService.getCacheHits());
+        assertEquals(0, userVerifyService.getCacheSize());
+    }
+
+    @Test
+    void testRevocationCheckAfterInterval() throws Exception {
+        MutableClock clock = new MutableClock(NOW);
+        when(firebaseAuth.verifyIdToken("token")).thenReturn(firebaseToken);
+        when(firebaseAuth.verifyIdToken("token", true)).thenReturn(firebaseToken);
+        UserVerifyService userVerifyService = new UserVerifyService(10, 60, clock);
+
+        userVerifyService.verifyUserToken("token");
+        clock.instant = NOW.plusSeconds(30);
+        userVerifyService.verifyUserToken("token");
+        clock.instant = NOW.plusSeconds(61);
+        userVerifyService.verifyUserToken("token");
+
+        verify(firebaseAuth, times(1)).verifyIdToken("token");
+        verify(firebaseAuth, times(1)).verifyIdToken("token", true);
+    }
+
+    @Test
+    void testCacheIsBounded() throws Exception {
+        when(firebaseAuth.verifyIdToken(anyString())).thenReturn(firebaseToken);
+        UserVerifyService userVerifyService = new UserVerifyService(2, 0, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        userVerifyService.verifyUserToken("a");
+        userVerifyService.verifyUserToken("b");
+        userVerifyService.verifyUserToken("c");
+
+        assertEquals(2, userVerifyService.getCacheSize());
+    }
+
+    @Test
+    void testInvalidTokenThrows() throws Exception {
+        when(firebaseAuth.verifyIdToken("bad")).thenThrow(new IllegalArgumentException("bad token"));
+        UserVerifyService userVerifyService = new UserVerifyService(10, 0, Clock.fixed(NOW, ZoneOffset.UTC));
+
+        CustomHttpException exception = assertThrows(CustomHttpException.class, () -> userVerifyService.verifyUserToken("bad"));
+        assertEquals(401, exception.getHttpStatusCode());
+        assertThrows(CustomHttpException.class, () -> userVerifyService.verifyUserToken(""));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.scm.scm.tenant;
+
+import com.scm.scm.support.exceptions.CustomHttpException;
+import com.scm.scm.tenant.dto.ContactCountDTO;
+import com.scm.scm.tenant.dto.ContactCountMode;
+import com.scm.scm.tenant.services.ContactCountServices;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContactCountServicesTests {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void testExactCountIsCached() {
+        ContactCountServices contactCountServices = new ContactCountServices(mongoTemplate, 60_000);
+        when(mongoTemplate.count(any(Query.class), eq("tenant_main"))).thenReturn(42L);
+
+        assertEquals(42L, contactCountServices.getContactAmount("tenant"));
+        assertEquals(42L, contactCountServices.getContactAmount("tenant"));
+
+        verify(mongoTemplate, times(1)).count(any(Query.class), eq("tenant_main"));
+        verify(mongoTemplate, never()).findAll(any(), anyString());
+    }
+
+    @Test
+    void testEvictTenantDropsCachedCounts() {
+        ContactCountServices contactCountServices = new ContactCountServices(mongoTemplate, 60_000);
+        when(mongoTemplate.count(any(Query.class), eq("tenant_main"))).thenReturn(42L, 0L);
+
+        assertEquals(42L, contactCountServices.getContactAmount("tenant"));
+        contactCountServices.evictTenant("tenant");
+
+        assertEquals(0L, contactCountServices.getContactAmount("tenant"));
+        verify(mongoTemplate, times(2)).count(any(Query.class), eq("tenant_main"));
+    }
+
+    @Test
+    void testEstimatedCountWithTags() {
+        ContactCountServices contactCountServices = new ContactCountServices(mongoTemplate, 0);
+        when(mongoTemplate.estimatedCount("tenant_main")).thenReturn(3L);
+        AggregationResults<Document> results = new AggregationResults<>(List.of(new Document("_id", "tag1").append("count", 2), new Document("_id", "tag2").append("count", 1)), new Document());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("tenant_main"), eq(Document.class))).thenReturn(results);
+
+        ContactCountDTO count = contactCountServices.countContacts("tenant", ContactCountMode.ESTIMATED, true);
+        contactCountServices.countContacts("tenant", ContactCountMode.ESTIMATED, true);
+
+        assertEquals(3L, count.getTotal());
+        assertEquals(ContactCountMode.ESTIMATED, count.getMode());
+        assertEquals(Map.of("tag1", 2L, "tag2", 1L), count.getTagCounts());
+        verify(mongoTemplate, times(2)).estimatedCount("tenant_main");
+        verify(mongoTemplate, never()).count(any(Query.class), anyString());
+    }
+
+    @Test
+    void testEmptyTenantUniqueName() {
+        ContactCountServices contactCountServices = new ContactCountServices(mongoTemplate, 60_000);
+        assertThrows(CustomHttpException.class, () -> contactCountServices.countContacts("", ContactCountMode.EXACT, false));
+    }
+}
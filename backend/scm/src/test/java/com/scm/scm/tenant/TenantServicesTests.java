@@ -1,24 +1,39 @@
 package com.scm.scm.tenant;
 
+import com.mongodb.client.result.UpdateResult;
+import com.scm.scm.contact.services.ContactSearchIndex;
+import com.scm.scm.contact.services.DuplicateDetector;
+import com.scm.scm.contact.vao.Contact;
+import com.scm.scm.events.services.EventWriteBehind;
+import com.scm.scm.events.services.EventsServices;
 import com.scm.scm.support.exceptions.CustomHttpException;
 import com.scm.scm.support.mongoTemplate.MongoTemplateService;
+import com.scm.scm.support.security.UserAccessService;
 import com.scm.scm.tenant.dao.TenantRepository;
 import com.scm.scm.tenant.dto.TenantDTO;
+import com.scm.scm.tenant.services.ContactCountServices;
 import com.scm.scm.tenant.services.TenantServices;
 import com.scm.scm.tenant.vao.Tenant;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -30,6 +45,27 @@ class TenantServicesTests {
     @Mock
     private MongoTemplateService mongoTemplateService;
 
+    @Mock
+    private UserAccessService userAccessService;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private EventsServices eventsServices;
+
+    @Mock
+    private EventWriteBehind eventWriteBehind;
+
+    @Mock
+    private ContactSearchIndex contactSearchIndex;
+
+    @Mock
+    private DuplicateDetector duplicateDetector;
+
+    @Mock
+    private ContactCountServices contactCountServices;
+
     @InjectMocks
     private TenantServices tenantServices;
 
@@ -98,6 +134,7 @@ class TenantServicesTests {
         assertEquals(tenantDTO.getTitle(), result.getTitle());
         verify(tenantRepository, times(1)).findById(anyString());
         verify(tenantRepository, times(1)).save(any(Tenant.class));
+        verify(userAccessService, times(1)).evictTenant(tenant.getId(), tenant.getTenantUniqueName());
     }
 
     @Test
@@ -113,26 +150,43 @@ class TenantServicesTests {
 
     @Test
     void testAddTags() {
-        when(tenantRepository.findByTenantUniqueName(anyString())).thenReturn(tenant);
-        when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
-        String result = tenantServices.addTags(tenant.getTenantUniqueName(), Arrays.asList("tag4", "tag5"));
+        String result = tenantServices.addTags(tenant.getTenantUniqueName(), Arrays.asList("tag4", "tag5", "tag4"));
 
         assertEquals("Tenant successfully added tags", result);
-        verify(tenantRepository, times(1)).findByTenantUniqueName(anyString());
-        verify(tenantRepository, times(1)).save(any(Tenant.class));
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), updateCaptor.capture(), eq(Tenant.class));
+        Document inc = (Document) updateCaptor.getValue().getUpdateObject().get("$inc");
+        assertEquals(2, inc.get("contactTags.tag4"));
+        assertEquals(1, inc.get("contactTags.tag5"));
+        verify(tenantRepository, never()).save(any(Tenant.class));
     }
 
     @Test
     void testRemoveTags() {
-        when(tenantRepository.findByTenantUniqueName(anyString())).thenReturn(tenant);
-        when(tenantRepository.save(any(Tenant.class))).thenReturn(tenant);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
 
         String result = tenantServices.removeTags(tenant.getTenantUniqueName(), Arrays.asList("tag1", "tag2"));
 
         assertEquals("Tenant successfully removed tags", result);
-        verify(tenantRepository, times(1)).findByTenantUniqueName(anyString());
-        verify(tenantRepository, times(1)).save(any(Tenant.class));
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updateCaptor.capture(), eq(Tenant.class));
+        Document inc = (Document) updateCaptor.getAllValues().getFirst().getUpdateObject().get("$inc");
+        assertEquals(-1, inc.get("contactTags.tag1"));
+        assertTrue(updateCaptor.getAllValues().get(1).getUpdateObject().containsKey("$unset"));
+        verify(tenantRepository, never()).save(any(Tenant.class));
+    }
+
+    @Test
+    void testApplyTagDeltasWithDottedTagFallsBackToSave() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(tenantRepository.findByTenantUniqueName(anyString())).thenReturn(tenant);
+
+        tenantServices.applyTagDeltas(tenant.getTenantUniqueName(), Map.of("tag.dot", 1, "tag4", 1));
+
+        assertEquals(1, tenant.getContactTags().get("tag.dot"));
+        verify(tenantRepository, times(1)).save(tenant);
     }
 
     @Test
@@ -145,6 +199,7 @@ class TenantServicesTests {
         assertEquals("Users added to Tenant successfully", result);
         verify(tenantRepository, times(1)).findById(anyString());
         verify(tenantRepository, times(1)).save(any(Tenant.class));
+        verify(userAccessService, times(1)).evictTenant(tenant.getId(), tenant.getTenantUniqueName());
     }
 
     @Test
@@ -157,6 +212,7 @@ class TenantServicesTests {
         assertEquals("Users removed from Tenant successfully", result);
         verify(tenantRepository, times(1)).findById(anyString());
         verify(tenantRepository, times(1)).save(any(Tenant.class));
+        verify(userAccessService, times(1)).evictTenant(tenant.getId(), tenant.getTenantUniqueName());
     }
 
     @Test
@@ -210,19 +266,19 @@ class TenantServicesTests {
     @Test
     void testAddTagsNotFound() {
         String tenantUniqueName = tenant.getTenantUniqueName();
-        when(tenantRepository.findByTenantUniqueName(tenantUniqueName)).thenReturn(null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         assertThrows(CustomHttpException.class, () -> tenantServices.addTags(tenantUniqueName, Arrays.asList("tag4", "tag5")));
-        verify(tenantRepository, times(1)).findByTenantUniqueName(tenantUniqueName);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Tenant.class));
     }
 
     @Test
     void testRemoveTagsNotFound() {
         String tenantUniqueName = tenant.getTenantUniqueName();
-        when(tenantRepository.findByTenantUniqueName(tenantUniqueName)).thenReturn(null);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(0, 0L, null));
 
         assertThrows(CustomHttpException.class, () -> tenantServices.removeTags(tenantUniqueName, Arrays.asList("tag1", "tag2")));
-        verify(tenantRepository, times(1)).findByTenantUniqueName(tenantUniqueName);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Tenant.class));
     }
 
 
@@ -252,4 +308,41 @@ class TenantServicesTests {
         assertThrows(CustomHttpException.class, () -> tenantServices.removeUsers(tenantId, users));
         verify(tenantRepository, times(1)).findById(tenantId);
     }
+
+    @Test
+    void testAddTagsToMultipleContactsUpdatesOnlyTargets() {
+        Contact tagged = Contact.builder().id("c1").tags(new ArrayList<>(List.of("vip"))).build();
+        Contact untagged = Contact.builder().id("c2").tags(new ArrayList<>()).build();
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of(tagged, untagged));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Tenant.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        String result = tenantServices.addTagsToMultipleContacts("tenantUniqueName", List.of("c1", "c2"), new String[]{"vip"}, "user1");
+
+        assertEquals("Tags added to contacts successfully", result);
+        verify(mongoTemplate, never()).findAll(eq(Contact.class), anyString());
+        ArgumentCaptor<Query> updateQuery = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).updateMulti(updateQuery.capture(), any(Update.class), eq("tenantUniqueName_main"));
+        assertEquals(new Document("$in", List.of("c2")), updateQuery.getValue().getQueryObject().get("_id"));
+        ArgumentCaptor<Update> tenantUpdate = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), tenantUpdate.capture(), eq(Tenant.class));
+        assertEquals(new Document("contactTags.vip", 1), tenantUpdate.getValue().getUpdateObject().get("$inc"));
+        verify(eventsServices, times(1)).addEvents(argThat(events -> events.size() == 1), eq("tenantUniqueName"));
+    }
+
+    @Test
+    void testRemovePropsFromMultipleContactsBatchesEvents() {
+        Contact withProp = Contact.builder().id("c1").props(new HashMap<>(Map.of("email", "a@example.com"))).build();
+        Contact withoutProp = Contact.builder().id("c2").props(new HashMap<>()).build();
+        when(mongoTemplate.find(any(Query.class), eq(Contact.class), eq("tenantUniqueName_main"))).thenReturn(List.of(withProp, withoutProp));
+
+        tenantServices.removePropsFromMultipleContacts("tenantUniqueName", List.of("c1", "c2"), List.of("email"), "user1");
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateMulti(any(Query.class), update.capture(), eq("tenantUniqueName_main"));
+        assertEquals(new Document("props.email", 1), update.getValue().getUpdateObject().get("$unset"));
+        verify(eventsServices, times(1)).addEvents(argThat(events -> events.size() == 1), eq("tenantUniqueName"));
+        verify(eventsServices, never()).addEvent(any(), anyString());
+        verify(duplicateDetector, times(1)).index("tenantUniqueName", withProp);
+        assertTrue(withProp.getProps().isEmpty());
+    }
 }